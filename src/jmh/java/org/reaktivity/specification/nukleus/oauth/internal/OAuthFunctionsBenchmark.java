@@ -0,0 +1,195 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.specification.nukleus.oauth.internal;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.reaktivity.specification.nukleus.oauth.internal.OAuthJwtKeys.RFC7515_ES256;
+
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.reaktivity.specification.nukleus.oauth.internal.OAuthFunctions.JwtHelper;
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(MICROSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OAuthFunctionsBenchmark
+{
+    private static final int BATCH_SIZE = 64;
+
+    private byte[] integrity;
+
+    @Setup
+    public void init() throws GeneralSecurityException
+    {
+        Signature signature = Signature.getInstance("SHA256withECDSA");
+        signature.initSign(RFC7515_ES256.getPrivate());
+        signature.update("header.payload".getBytes(US_ASCII));
+        integrity = signature.sign();
+    }
+
+    @Benchmark
+    public String sign(
+        SignState state) throws GeneralSecurityException
+    {
+        return state.jwt.sign();
+    }
+
+    @Benchmark
+    public String signCached(
+        SignState state) throws GeneralSecurityException
+    {
+        return state.cachedJwt.sign();
+    }
+
+    @Benchmark
+    public int signIntoBuffer(
+        SignState state) throws GeneralSecurityException
+    {
+        return state.jwt.sign(state.buffer, 0);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public int signLatency(
+        SignState state) throws GeneralSecurityException
+    {
+        return state.jwt.sign(state.buffer, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public String[] signBatch(
+        SignState state)
+    {
+        return state.jwt.batch(BATCH_SIZE)
+                        .jti("token-%d")
+                        .sign();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public String[] signBatchOnExecutor(
+        SignState state,
+        ExecutorState executor)
+    {
+        return state.jwt.batch(BATCH_SIZE)
+                        .jti("token-%d")
+                        .executor(executor.executor)
+                        .sign();
+    }
+
+    @Benchmark
+    public byte[] decodeIntegrity()
+    {
+        return OAuthFunctions.decodeIntegrity(integrity);
+    }
+
+    @Benchmark
+    public byte[] resolveEx()
+    {
+        return OAuthFunctions.resolveEx()
+                             .issuer("test issuer")
+                             .audience("testAudience")
+                             .build();
+    }
+
+    @State(Scope.Thread)
+    public static class SignState
+    {
+        @Param({ "RS256", "ES256" })
+        public String kind;
+
+        private final MutableDirectBuffer buffer = new UnsafeBuffer(new byte[1024]);
+
+        private JwtHelper jwt;
+        private JwtHelper cachedJwt;
+
+        @Setup
+        public void init()
+        {
+            jwt = OAuthFunctions.jwt(kind)
+                                .claim("iss", "test issuer")
+                                .claim("aud", "testAudience")
+                                .claim("scope", "scope1 scope2 scope3")
+                                .claim("sub", "test subject")
+                                .expiresInSeconds(3600);
+            cachedJwt = OAuthFunctions.jwt(kind)
+                                      .claim("iss", "test issuer")
+                                      .claim("aud", "testAudience")
+                                      .claim("scope", "scope1 scope2 scope3")
+                                      .claim("sub", "test subject")
+                                      .expiresInSeconds(3600)
+                                      .cached();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutorState
+    {
+        private ExecutorService executor;
+
+        @Setup
+        public void init()
+        {
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+
+        @TearDown
+        public void close()
+        {
+            executor.shutdown();
+        }
+    }
+
+    public static void main(
+        String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+                .include(OAuthFunctionsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -15,53 +15,113 @@
  */
 package org.reaktivity.specification.nukleus.oauth.internal;
 
-import static java.lang.System.currentTimeMillis;
+import static java.lang.Runtime.getRuntime;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.util.Collections.unmodifiableMap;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
 import static org.reaktivity.specification.nukleus.oauth.internal.OAuthJwtKeys.RFC7515_ES256;
+import static org.reaktivity.specification.nukleus.oauth.internal.OAuthJwtKeys.RFC7515_ES512;
 import static org.reaktivity.specification.nukleus.oauth.internal.OAuthJwtKeys.RFC7515_RS256;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
-import java.security.InvalidKeyException;
 import java.security.KeyPair;
-import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.Signature;
 import java.security.SignatureException;
+import java.security.interfaces.ECPrivateKey;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Supplier;
-import java.util.function.UnaryOperator;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
 import org.agrona.LangUtil;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.kaazing.k3po.lang.el.BytesMatcher;
 import org.kaazing.k3po.lang.el.Function;
 import org.kaazing.k3po.lang.el.spi.FunctionMapperSpi;
+import org.reaktivity.specification.nukleus.oauth.internal.OAuthJwtKeyRegistry.OAuthJwtKey;
+import org.reaktivity.specification.oauth.internal.types.Array32FW;
+import org.reaktivity.specification.oauth.internal.types.OctetsFW;
+import org.reaktivity.specification.oauth.internal.types.control.OAuthAuthorizationFW;
+import org.reaktivity.specification.oauth.internal.types.control.OAuthResolveBatchEntryFW;
 import org.reaktivity.specification.oauth.internal.types.control.OAuthResolveExFW;
-
-import com.hierynomus.asn1.encodingrules.der.DERDecoder;
-import com.hierynomus.asn1.types.ASN1Tag;
-import com.hierynomus.asn1.types.constructed.ASN1Sequence;
-import com.hierynomus.asn1.types.primitive.ASN1Integer;
+import org.reaktivity.specification.oauth.internal.types.control.OAuthRevokeExFW;
+import org.reaktivity.specification.oauth.internal.types.control.OAuthUpdateRolesExFW;
+import org.reaktivity.specification.oauth.internal.types.stream.OAuthBeginExFW;
 
 public final class OAuthFunctions
 {
-    private static final Map<String, Supplier<JwtHelper>> HELPER_FACTORIES;
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+    private static final byte[] BASE64_DIGITS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(US_ASCII);
+
+    private static final Map<String, JwtTokenCache> TOKENS = new ConcurrentHashMap<>();
+
+    private static volatile Clock clock = Clock.systemUTC();
+
+    public static final String KEYS_PROPERTY_NAME = "oauth.jwt.keys";
+    public static final String TOKEN_CACHE_CAPACITY_PROPERTY_NAME = "oauth.jwt.token.cache.capacity";
+
+    private static final int TOKEN_CACHE_CAPACITY = Integer.getInteger(TOKEN_CACHE_CAPACITY_PROPERTY_NAME, 256);
+
+    private static final String KEYS_RESOURCE_NAME = "/keys/signingKeys.jwk";
+    private static final String ROTATING_KEYS_RESOURCE_NAME = "/keys/rotatingSigningKeys.jwk";
+    private static final String ROTATING_KID_PREFIX = "rotating-";
+    private static final String WARMUP_KID = "RS256";
+    private static final String UNKNOWN_KID = "unknown";
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private static final OAuthJwtKeyRegistry KEYS;
 
     static
     {
-        Map<String, Supplier<JwtHelper>> helperFactories = new HashMap<>();
-        helperFactories.put("RS256", () -> new JwtHelper(RFC7515_RS256, "RS256", "SHA256withRSA"));
-        helperFactories.put("ES256", () -> new JwtHelper(RFC7515_ES256, "ES256", "SHA256withECDSA"));
-        HELPER_FACTORIES = unmodifiableMap(helperFactories);
+        try
+        {
+            OAuthJwtKeyRegistry keys = new OAuthJwtKeyRegistry()
+                .register("RS256", "RS256", RFC7515_RS256)
+                .register("ES256", "ES256", RFC7515_ES256)
+                .register("ES512", "ES512", RFC7515_ES512)
+                .load(OAuthFunctions.class.getResource(KEYS_RESOURCE_NAME));
+
+            String keysFile = System.getProperty(KEYS_PROPERTY_NAME);
+            if (keysFile != null)
+            {
+                keys.load(Paths.get(keysFile));
+            }
+
+            KEYS = keys;
+        }
+        catch (IOException | GeneralSecurityException ex)
+        {
+            throw new IllegalStateException(ex);
+        }
     }
 
     @Function
@@ -70,12 +130,112 @@ public final class OAuthFunctions
         return new OAuthResolveExBuilder();
     }
 
+    @Function
+    public static OAuthAuthorizationBuilder authorization()
+    {
+        return new OAuthAuthorizationBuilder();
+    }
+
+    @Function
+    public static OAuthUpdateRolesExBuilder updateRolesEx()
+    {
+        return new OAuthUpdateRolesExBuilder();
+    }
+
+    @Function
+    public static OAuthRevokeExBuilder revokeEx()
+    {
+        return new OAuthRevokeExBuilder();
+    }
+
+    @Function
+    public static OAuthResolveBatchBuilder resolveBatch()
+    {
+        return new OAuthResolveBatchBuilder();
+    }
+
+    @Function
+    public static OAuthResolvedBatchBuilder resolvedBatch()
+    {
+        return new OAuthResolvedBatchBuilder();
+    }
+
+    @Function
+    public static OAuthBeginExBuilder beginEx()
+    {
+        return new OAuthBeginExBuilder();
+    }
+
+    @Function
+    public static OAuthBeginExMatcherBuilder matchBeginEx()
+    {
+        return new OAuthBeginExMatcherBuilder();
+    }
+
+    @Function
+    public static OAuthParamsBuilder query()
+    {
+        return new OAuthParamsBuilder("?", "&");
+    }
+
+    @Function
+    public static OAuthParamsBuilder cookies()
+    {
+        return new OAuthParamsBuilder("", "; ");
+    }
+
     @Function
     public static JwtHelper jwt(
-        String kind)
+        String kid)
+    {
+        OAuthJwtKey key = kid.startsWith(ROTATING_KID_PREFIX) ? RotatingKeys.KEYS.lookup(kid) : KEYS.lookup(kid);
+        JwtHelper helper = new JwtHelper(key.keyPair(), kid, key.alg(), key.algorithm());
+
+        if (WARMUP_KID.equals(kid))
+        {
+            try
+            {
+                helper.signers.warmup(getRuntime().availableProcessors());
+            }
+            catch (GeneralSecurityException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+        }
+
+        return helper;
+    }
+
+    @Function
+    public static Clock fixedClock(
+        long epochSeconds)
+    {
+        return Clock.fixed(Instant.ofEpochSecond(epochSeconds), ZoneOffset.UTC);
+    }
+
+    @Function
+    public static Clock offsetClock(
+        long seconds)
+    {
+        return Clock.offset(clock, Duration.ofSeconds(seconds));
+    }
+
+    @Function
+    public static long now()
+    {
+        return MILLISECONDS.toSeconds(clock.millis());
+    }
+
+    public static void clock(
+        Clock clock)
     {
-        Supplier<JwtHelper> helperFactory = HELPER_FACTORIES.get(kind);
-        return helperFactory.get();
+        OAuthFunctions.clock = clock;
+    }
+
+    public static JwtTokenCache tokenCache(
+        String kid)
+    {
+        return TOKENS.computeIfAbsent(kid, k -> new JwtTokenCache(TOKEN_CACHE_CAPACITY));
     }
 
     static JwtHelper jwt(
@@ -83,40 +243,114 @@ public final class OAuthFunctions
         String kind,
         String algorithm)
     {
-        return new JwtHelper(pair, kind, algorithm);
+        return new JwtHelper(pair, kind, kind, algorithm);
     }
 
     static byte[] decodeIntegrity(
         byte[] integrity)
     {
-        return JwtSigner.decodeDER(integrity);
+        final byte[] rawIntegrity = new byte[64];
+        JwtSigner.decodeDER(integrity, 0, integrity.length, rawIntegrity, 0, 32);
+        return rawIntegrity;
     }
 
     public static final class JwtHelper
     {
         private final KeyPair keyPair;
-        private final String kind;
+        private final String kid;
+        private final String alg;
         private final String algorithm;
-        private final List<String> claims;
+        private final MutableDirectBuffer header;
+        private final int headerLength;
+        private final MutableDirectBuffer payload;
+        private final MutableDirectBuffer token;
+        private final MutableDirectBuffer claimsKey;
+        private final UnsafeBuffer claimsKeyRO;
+        private final JwtSignerPool signers;
+
+        private int payloadLength;
+        private int[] claimOffsets;
+        private int[] claimLengths;
+        private int[] claimOrder;
+        private int claimCount;
+        private long expiry;
+        private byte[] securedInput;
+        private Clock clock;
+        private JwtTokenCache tokens;
 
         private JwtHelper(
             KeyPair keyPair,
-            String kind,
+            String kid,
+            String alg,
             String algorithm)
         {
             this.keyPair = keyPair;
-            this.kind = kind;
+            this.kid = kid;
+            this.alg = alg;
             this.algorithm = algorithm;
-            this.claims = new ArrayList<>();
+            this.header = new ExpandableArrayBuffer(64);
+            this.headerLength = header.putStringWithoutLengthUtf8(0,
+                    String.format("{\"kid\":\"%s\",\"alg\":\"%s\"}", kid, alg));
+            this.payload = new ExpandableArrayBuffer(256);
+            this.payload.putByte(0, (byte) '{');
+            this.payload.putByte(1, (byte) '}');
+            this.payloadLength = 2;
+            this.token = new ExpandableArrayBuffer(1024);
+            this.claimsKey = new ExpandableArrayBuffer(256);
+            this.claimsKeyRO = new UnsafeBuffer(new byte[0]);
+            this.claimOffsets = new int[8];
+            this.claimLengths = new int[8];
+            this.claimOrder = new int[8];
+            this.expiry = NO_EXPIRY;
+            this.securedInput = new byte[0];
+            this.signers = JwtSignerPool.of(algorithm, keyPair.getPrivate());
+            this.clock = OAuthFunctions.clock;
+        }
+
+        public JwtHelper clock(
+            Clock clock)
+        {
+            this.clock = clock;
+            return this;
+        }
+
+        public JwtHelper cached()
+        {
+            return cached(tokenCache(kid));
+        }
+
+        JwtHelper cached(
+            JwtTokenCache tokens)
+        {
+            this.tokens = tokens;
+            return this;
         }
 
         public JwtHelper expiresInSeconds(
             int seconds)
         {
-            long expiry = MILLISECONDS.toSeconds(currentTimeMillis()) + seconds;
+            long expiry = MILLISECONDS.toSeconds(clock.millis()) + seconds;
             return claim("exp", expiry);
         }
 
+        public JwtHelper expiresAt(
+            long epochSeconds)
+        {
+            return claim("exp", epochSeconds);
+        }
+
+        public JwtHelper notBefore(
+            long epochSeconds)
+        {
+            return claim("nbf", epochSeconds);
+        }
+
+        public JwtHelper issuedAt(
+            long epochSeconds)
+        {
+            return claim("iat", epochSeconds);
+        }
+
         public JwtHelper claim(
             String name,
             Object... values)
@@ -126,8 +360,12 @@ public final class OAuthFunctions
                 if (values.length == 1)
                 {
                     Object value = values[0];
+                    if ("exp".equals(name) && value instanceof Number)
+                    {
+                        expiry = ((Number) value).longValue();
+                    }
                     String format = value instanceof String ? "\"%s\":\"%s\"" : "\"%s\":%d";
-                    this.claims.add(String.format(format, name, value));
+                    appendClaim(String.format(format, name, value));
                 }
                 else
                 {
@@ -144,145 +382,1394 @@ public final class OAuthFunctions
                         claim.append(String.format(format, value));
                     }
                     claim.append(']');
-                    this.claims.add(claim.toString());
+                    appendClaim(claim.toString());
                 }
             }
             return this;
         }
 
+        public JwtBatchHelper batch(
+            int count)
+        {
+            return new JwtBatchHelper(this, count);
+        }
+
         public String sign() throws GeneralSecurityException
         {
-            String header = String.format("{\"kid\":\"%s\",\"alg\":\"%s\"}", kind, kind);
-            String payload = claims.stream().collect(Collectors.joining(",", "{", "}"));
+            final long now = MILLISECONDS.toSeconds(clock.millis());
+
+            String signed = null;
+            if (tokens != null)
+            {
+                claimsKeyRO.wrap(claimsKey, 0, encodeClaimsKey());
+                signed = tokens.get(claimsKeyRO, now);
+            }
+
+            if (signed == null)
+            {
+                final int securedInputLength = encodeSecuredInput(token, 0);
+                final int length = signSecuredInput(token, 0, securedInputLength);
+                signed = token.getStringWithoutLengthAscii(0, length);
+
+                if (tokens != null)
+                {
+                    tokens.put(claimsKeyRO, signed, expiry, now);
+                }
+            }
+
+            return signed;
+        }
+
+        public int sign(
+            MutableDirectBuffer buffer,
+            int offset) throws GeneralSecurityException
+        {
+            final int securedInputLength = encodeSecuredInput(buffer, offset);
+            return signSecuredInput(buffer, offset, securedInputLength);
+        }
+
+        private int encodeClaimsKey()
+        {
+            for (int index = 0; index < claimCount; index++)
+            {
+                int order = index;
+                while (order > 0 && compareClaims(claimOrder[order - 1], index) > 0)
+                {
+                    claimOrder[order] = claimOrder[order - 1];
+                    order--;
+                }
+                claimOrder[order] = index;
+            }
+
+            int progress = 0;
+            for (int index = 0; index < claimCount; index++)
+            {
+                final int claim = claimOrder[index];
+                claimsKey.putBytes(progress, payload, claimOffsets[claim], claimLengths[claim]);
+                progress += claimLengths[claim];
+                claimsKey.putByte(progress++, (byte) ',');
+            }
+            return progress;
+        }
+
+        private int compareClaims(
+            int claim1,
+            int claim2)
+        {
+            final int offset1 = claimOffsets[claim1];
+            final int offset2 = claimOffsets[claim2];
+            final int length = Math.min(claimLengths[claim1], claimLengths[claim2]);
+
+            int comparison = 0;
+            for (int index = 0; comparison == 0 && index < length; index++)
+            {
+                comparison = Byte.compare(payload.getByte(offset1 + index), payload.getByte(offset2 + index));
+            }
+            return comparison != 0 ? comparison : Integer.compare(claimLengths[claim1], claimLengths[claim2]);
+        }
+
+        private int encodeSecuredInput(
+            MutableDirectBuffer buffer,
+            int offset)
+        {
+            int progress = offset;
+            progress += encodeBase64(header, 0, headerLength, buffer, progress);
+            buffer.putByte(progress++, (byte) '.');
+            progress += encodeBase64(payload, 0, payloadLength, buffer, progress);
+            return progress - offset;
+        }
+
+        private int signSecuredInput(
+            MutableDirectBuffer buffer,
+            int offset,
+            int securedInputLength) throws GeneralSecurityException
+        {
+            int progress = offset + securedInputLength;
+            final JwtSigner signer = signers.acquire();
+            try
+            {
+                final byte[] array = buffer.byteArray();
+                if (array != null)
+                {
+                    signer.update(array, buffer.wrapAdjustment() + offset, securedInputLength);
+                }
+                else
+                {
+                    if (securedInput.length < securedInputLength)
+                    {
+                        securedInput = new byte[securedInputLength];
+                    }
+                    buffer.getBytes(offset, securedInput, 0, securedInputLength);
+                    signer.update(securedInput, 0, securedInputLength);
+                }
+
+                final int integrityLength = signer.sign();
+                buffer.putByte(progress++, (byte) '.');
+                progress += encodeBase64(signer.integrity(), 0, integrityLength, buffer, progress);
+            }
+            finally
+            {
+                signers.release(signer);
+            }
+
+            return progress - offset;
+        }
+
+        private void appendClaim(
+            String claim)
+        {
+            int progress = payloadLength - 1;
+            if (payloadLength > 2)
+            {
+                payload.putByte(progress++, (byte) ',');
+            }
+
+            if (claimCount == claimOffsets.length)
+            {
+                claimOffsets = Arrays.copyOf(claimOffsets, claimCount << 1);
+                claimLengths = Arrays.copyOf(claimLengths, claimCount << 1);
+                claimOrder = Arrays.copyOf(claimOrder, claimCount << 1);
+            }
+            claimOffsets[claimCount] = progress;
+            claimLengths[claimCount] = payload.putStringWithoutLengthUtf8(progress, claim);
+            progress += claimLengths[claimCount++];
+
+            payload.putByte(progress++, (byte) '}');
+            payloadLength = progress;
+        }
+
+        private String header64()
+        {
+            final byte[] bytes = new byte[headerLength];
+            header.getBytes(0, bytes);
+            return new String(BASE64.encode(bytes), US_ASCII);
+        }
 
-            Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
-            String header64 = new String(base64.encode(header.getBytes(UTF_8)), US_ASCII);
-            String payload64 = new String(base64.encode(payload.getBytes(UTF_8)), US_ASCII);
-            String securedInput = String.format("%s.%s", header64, payload64);
+        private String header64(
+            String kid)
+        {
+            final byte[] bytes = String.format("{\"kid\":\"%s\",\"alg\":\"%s\"}", kid, alg).getBytes(UTF_8);
+            return new String(BASE64.encode(bytes), US_ASCII);
+        }
 
-            JwtSigner signer = JwtSigner.getInstance(algorithm);
-            signer.initSign(keyPair.getPrivate());
-            signer.update(securedInput.getBytes(US_ASCII));
-            byte[] integrity = signer.sign();
-            String integrity64 = new String(base64.encode(integrity), US_ASCII);
+        private String sign(
+            String securedInput) throws GeneralSecurityException
+        {
+            final byte[] bytes = securedInput.getBytes(US_ASCII);
+            final byte[] integrity;
+            final JwtSigner signer = signers.acquire();
+            try
+            {
+                signer.update(bytes, 0, bytes.length);
+                integrity = new byte[signer.sign()];
+                signer.integrity().getBytes(0, integrity);
+            }
+            finally
+            {
+                signers.release(signer);
+            }
+            String integrity64 = new String(BASE64.encode(integrity), US_ASCII);
 
             return String.format("%s.%s", securedInput, integrity64);
         }
     }
 
-    public static final class OAuthResolveExBuilder
+    public static final class JwtBatchHelper
     {
-        private final OAuthResolveExFW.Builder resolveExRW;
+        private final JwtHelper template;
+        private final int count;
 
-        private OAuthResolveExBuilder()
+        private String subject;
+        private String jti;
+        private long expiry;
+        private int expiryStride;
+        private Executor executor;
+        private JwtCorruption[] corruptions;
+
+        private JwtBatchHelper(
+            JwtHelper template,
+            int count)
         {
-            MutableDirectBuffer writeExBuffer = new UnsafeBuffer(new byte[1024 * 8]);
-            this.resolveExRW = new OAuthResolveExFW.Builder().wrap(writeExBuffer, 0, writeExBuffer.capacity());
+            this.template = template;
+            this.count = count;
         }
 
-        public OAuthResolveExBuilder issuer(
-            String issuerName)
+        public JwtBatchHelper subject(
+            String format)
         {
-            resolveExRW.issuer(issuerName);
+            this.subject = format;
             return this;
         }
 
-        public OAuthResolveExBuilder audience(
-            String audienceName)
+        public JwtBatchHelper jti(
+            String format)
         {
-            resolveExRW.audience(audienceName);
+            this.jti = format;
             return this;
         }
 
-        public byte[] build()
+        public JwtBatchHelper expiresInSeconds(
+            int seconds)
         {
-            final OAuthResolveExFW resolveEx = resolveExRW.build();
-            final byte[] array = new byte[resolveEx.sizeof()];
-            resolveEx.buffer().getBytes(resolveEx.offset(), array);
-            return array;
+            return expiresInSeconds(seconds, 0);
         }
-    }
 
-    private static final class JwtSigner
-    {
-        private static final Map<String, JwtSigner> SIGNERS = new ConcurrentHashMap<>();
+        public JwtBatchHelper expiresInSeconds(
+            int seconds,
+            int stride)
+        {
+            this.expiry = MILLISECONDS.toSeconds(template.clock.millis()) + seconds;
+            this.expiryStride = stride;
+            return this;
+        }
 
-        private final Signature signature;
-        private final UnaryOperator<byte[]> decoder;
+        public JwtBatchHelper executor(
+            Executor executor)
+        {
+            this.executor = executor;
+            return this;
+        }
 
-        public static JwtSigner getInstance(
-            String algorithm)
+        public JwtBatchHelper corrupt(
+            String... kinds)
         {
-            return SIGNERS.computeIfAbsent(algorithm, JwtSigner::newSigner);
+            this.corruptions = Arrays.stream(kinds).map(JwtCorruption::of).toArray(JwtCorruption[]::new);
+            return this;
         }
 
-        public void initSign(
-            PrivateKey privateKey) throws InvalidKeyException
+        public String[] sign()
         {
-            signature.initSign(privateKey);
+            return stream().toArray(String[]::new);
         }
 
-        public void update(
-            byte[] data) throws SignatureException
+        public Stream<String> stream()
         {
-            signature.update(data);
+            // pad the shared claims with JSON whitespace to a multiple of 3 bytes so that
+            // the base64 encoding of the template can be concatenated with each variation
+            final int claimsLength = template.payloadLength - 1;
+            final byte[] prefix = new byte[claimsLength + 2 - (claimsLength + 2) % 3];
+            Arrays.fill(prefix, (byte) ' ');
+            template.payload.getBytes(0, prefix, 0, claimsLength);
+
+            String payload64 = new String(BASE64.encode(prefix), US_ASCII);
+            String prefix64 = String.format("%s.%s", template.header64(), payload64);
+            String unknownKidPrefix64 = String.format("%s.%s", template.header64(UNKNOWN_KID), payload64);
+            String separator = claimsLength > 1 ? "," : "";
+
+            Stream<String> tokens;
+            if (executor != null)
+            {
+                final List<CompletableFuture<String>> futures = IntStream.range(0, count)
+                        .mapToObj(index -> CompletableFuture.supplyAsync(
+                            () -> sign(prefix64, unknownKidPrefix64, separator, index), executor))
+                        .collect(toList());
+                tokens = futures.stream().map(JwtBatchHelper::join);
+            }
+            else
+            {
+                tokens = IntStream.range(0, count)
+                                  .parallel()
+                                  .mapToObj(index -> sign(prefix64, unknownKidPrefix64, separator, index));
+            }
+            return tokens;
         }
 
-        public byte[] sign() throws SignatureException
+        private static String join(
+            CompletableFuture<String> future)
         {
-            return decoder.apply(signature.sign());
+            String token = null;
+            try
+            {
+                token = future.join();
+            }
+            catch (CompletionException ex)
+            {
+                LangUtil.rethrowUnchecked(ex.getCause());
+            }
+            return token;
         }
 
-        static byte[] decodeDER(
-            byte[] integrity)
+        private String sign(
+            String prefix64,
+            String unknownKidPrefix64,
+            String separator,
+            int index)
         {
-            final DERDecoder decoder = new DERDecoder();
-            final ASN1Sequence sequence0 = new ASN1Sequence.Parser(decoder).parse(ASN1Tag.SEQUENCE, integrity);
-            final ASN1Sequence sequence1 = (ASN1Sequence) sequence0.get(0);
-            final ASN1Integer element0 = (ASN1Integer) sequence1.get(0);
-            final ASN1Integer element1 = (ASN1Integer) sequence1.get(1);
+            final JwtCorruption corruption = corruptions != null ? corruptions[index % corruptions.length] : null;
+
+            StringBuilder suffix = new StringBuilder();
+            if (subject != null)
+            {
+                suffix.append(separator).append(String.format("\"sub\":\"%s\"", String.format(subject, index)));
+                separator = ",";
+            }
+            if (jti != null)
+            {
+                suffix.append(separator).append(String.format("\"jti\":\"%s\"", String.format(jti, index)));
+                separator = ",";
+            }
+            if (expiry != 0L)
+            {
+                suffix.append(separator).append(String.format("\"exp\":%d", expiry + (long) expiryStride * index));
+            }
+            suffix.append('}');
+
+            String suffix64 = new String(BASE64.encode(suffix.toString().getBytes(UTF_8)), US_ASCII);
+            String securedInput = (corruption == JwtCorruption.KID ? unknownKidPrefix64 : prefix64).concat(suffix64);
+
+            String token = null;
+            try
+            {
+                token = template.sign(securedInput);
+            }
+            catch (GeneralSecurityException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+            return corruption != null ? corruption.apply(token, index) : token;
+        }
+    }
 
-            final byte[] r = element0.getValue().toByteArray();
-            final byte[] s = element1.getValue().toByteArray();
+    private enum JwtCorruption
+    {
+        TRUNCATED
+        {
+            @Override
+            String apply(
+                String token,
+                int index)
+            {
+                final int signatureAt = token.lastIndexOf('.') + 1;
+                return token.substring(0, signatureAt + (token.length() - signatureAt) / 2);
+            }
+        },
 
-            final int offsetR = r.length & 0x01;
-            final int lengthR = r.length - offsetR;
-            final int offsetS = s.length & 0x01;
-            final int lengthS = s.length - offsetS;
+        KID
+        {
+            @Override
+            String apply(
+                String token,
+                int index)
+            {
+                return token;
+            }
+        },
 
-            assert offsetR == 0x00 ^ r[0] == 0;
-            assert offsetS == 0x00 ^ s[0] == 0;
+        FLIPPED
+        {
+            @Override
+            String apply(
+                String token,
+                int index)
+            {
+                final int signatureAt = token.lastIndexOf('.') + 1;
+                final byte[] signature = BASE64_DECODER.decode(token.substring(signatureAt));
+                final int bit = index % (signature.length << 3);
+                signature[bit >> 3] ^= 1 << (bit & 0x07);
+                return token.substring(0, signatureAt).concat(new String(BASE64.encode(signature), US_ASCII));
+            }
+        };
 
-            byte[] rawIntegrity = new byte[lengthR + lengthS];
-            System.arraycopy(r, offsetR, rawIntegrity, 0, lengthR);
-            System.arraycopy(s, offsetS, rawIntegrity, lengthR, lengthS);
+        abstract String apply(
+            String token,
+            int index);
 
-            return rawIntegrity;
+        static JwtCorruption of(
+            String kind)
+        {
+            return valueOf(kind.toUpperCase());
         }
+    }
 
-        private JwtSigner(
-            Signature signature,
-            UnaryOperator<byte[]> decoder)
+    private static int encodeBase64(
+        DirectBuffer source,
+        int sourceOffset,
+        int sourceLength,
+        MutableDirectBuffer target,
+        int targetOffset)
+    {
+        final int sourceLimit = sourceOffset + sourceLength;
+        final int sourceLimit3 = sourceOffset + sourceLength - sourceLength % 3;
+
+        int sourceProgress = sourceOffset;
+        int targetProgress = targetOffset;
+        while (sourceProgress < sourceLimit3)
         {
-            this.signature = signature;
-            this.decoder = decoder;
+            final int bits = (source.getByte(sourceProgress++) & 0xff) << 16 |
+                             (source.getByte(sourceProgress++) & 0xff) << 8 |
+                             source.getByte(sourceProgress++) & 0xff;
+            target.putByte(targetProgress++, BASE64_DIGITS[(bits >>> 18) & 0x3f]);
+            target.putByte(targetProgress++, BASE64_DIGITS[(bits >>> 12) & 0x3f]);
+            target.putByte(targetProgress++, BASE64_DIGITS[(bits >>> 6) & 0x3f]);
+            target.putByte(targetProgress++, BASE64_DIGITS[bits & 0x3f]);
         }
 
-        private static JwtSigner newSigner(
-            String algorithm)
+        if (sourceProgress < sourceLimit)
         {
-            UnaryOperator<byte[]> decoder = algorithm.endsWith("withECDSA") ? JwtSigner::decodeDER : UnaryOperator.identity();
-            JwtSigner newSigner = null;
-            try
+            final int byte0 = source.getByte(sourceProgress++) & 0xff;
+            target.putByte(targetProgress++, BASE64_DIGITS[byte0 >>> 2]);
+            if (sourceProgress < sourceLimit)
             {
-                Signature signature = Signature.getInstance(algorithm);
-                newSigner = new JwtSigner(signature, decoder);
+                final int byte1 = source.getByte(sourceProgress++) & 0xff;
+                target.putByte(targetProgress++, BASE64_DIGITS[(byte0 << 4) & 0x3f | byte1 >>> 4]);
+                target.putByte(targetProgress++, BASE64_DIGITS[(byte1 << 2) & 0x3f]);
             }
-            catch (NoSuchAlgorithmException ex)
+            else
             {
-                LangUtil.rethrowUnchecked(ex);
+                target.putByte(targetProgress++, BASE64_DIGITS[(byte0 << 4) & 0x3f]);
+            }
+        }
+
+        return targetProgress - targetOffset;
+    }
+
+    public static final class JwtTokenCache
+    {
+        private final Map<DirectBuffer, JwtTokenEntry> tokens;
+        private final AtomicLong hits;
+        private final AtomicLong misses;
+
+        JwtTokenCache(
+            int capacity)
+        {
+            this.tokens = new LinkedHashMap<DirectBuffer, JwtTokenEntry>(capacity, 0.75f, true)
+            {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                    Map.Entry<DirectBuffer, JwtTokenEntry> eldest)
+                {
+                    return size() > capacity;
+                }
+            };
+            this.hits = new AtomicLong();
+            this.misses = new AtomicLong();
+        }
+
+        public long hits()
+        {
+            return hits.get();
+        }
+
+        public long misses()
+        {
+            return misses.get();
+        }
+
+        public int size()
+        {
+            synchronized (tokens)
+            {
+                return tokens.size();
+            }
+        }
+
+        private String get(
+            DirectBuffer claimsKey,
+            long now)
+        {
+            String token = null;
+            synchronized (tokens)
+            {
+                final JwtTokenEntry entry = tokens.get(claimsKey);
+                if (entry != null)
+                {
+                    if (entry.expiry > now)
+                    {
+                        token = entry.token;
+                    }
+                    else
+                    {
+                        tokens.remove(claimsKey);
+                    }
+                }
+            }
+
+            if (token != null)
+            {
+                hits.incrementAndGet();
+            }
+            else
+            {
+                misses.incrementAndGet();
+            }
+            return token;
+        }
+
+        private void put(
+            DirectBuffer claimsKey,
+            String token,
+            long expiry,
+            long now)
+        {
+            if (expiry > now)
+            {
+                final byte[] key = new byte[claimsKey.capacity()];
+                claimsKey.getBytes(0, key);
+                final JwtTokenEntry entry = new JwtTokenEntry(token, expiry);
+                synchronized (tokens)
+                {
+                    tokens.put(new UnsafeBuffer(key), entry);
+                }
+            }
+        }
+    }
+
+    private static final class JwtTokenEntry
+    {
+        private final String token;
+        private final long expiry;
+
+        private JwtTokenEntry(
+            String token,
+            long expiry)
+        {
+            this.token = token;
+            this.expiry = expiry;
+        }
+    }
+
+    public static final class OAuthResolveExBuilder
+    {
+        private static final int OPTION_VERIFIED_IDENTITY = 0x01;
+
+        private final OAuthResolveExFW.Builder resolveExRW;
+        private final List<String> issuers;
+        private final List<String> audiences;
+        private final Map<String, String> projections;
+
+        private int options;
+
+        private OAuthResolveExBuilder()
+        {
+            MutableDirectBuffer writeExBuffer = new UnsafeBuffer(new byte[1024 * 8]);
+            this.resolveExRW = new OAuthResolveExFW.Builder().wrap(writeExBuffer, 0, writeExBuffer.capacity());
+            this.issuers = new ArrayList<>();
+            this.audiences = new ArrayList<>();
+            this.projections = new LinkedHashMap<>();
+        }
+
+        public OAuthResolveExBuilder issuer(
+            String issuerName)
+        {
+            issuers.add(issuerName);
+            return this;
+        }
+
+        public OAuthResolveExBuilder audience(
+            String audienceName)
+        {
+            audiences.add(audienceName);
+            return this;
+        }
+
+        public OAuthResolveExBuilder project(
+            String claimName,
+            String headerName)
+        {
+            projections.put(claimName, headerName);
+            return this;
+        }
+
+        public OAuthResolveExBuilder verifiedIdentity()
+        {
+            options |= OPTION_VERIFIED_IDENTITY;
+            return this;
+        }
+
+        public byte[] build()
+        {
+            // first issuer and audience keep their original fields, any others follow in the appended lists
+            final OAuthResolveExFW resolveEx = resolveExRW
+                    .issuer(first(issuers))
+                    .audience(first(audiences))
+                    .issuers(i -> others(issuers).forEach(issuer -> i.item(s -> s.set(issuer, UTF_8))))
+                    .audiences(a -> others(audiences).forEach(audience -> a.item(s -> s.set(audience, UTF_8))))
+                    .projections(p -> projections.forEach((claim, header) -> p.item(c -> c.claim(claim).header(header))))
+                    .options(options)
+                    .build();
+            final byte[] array = new byte[resolveEx.sizeof()];
+            resolveEx.buffer().getBytes(resolveEx.offset(), array);
+            return array;
+        }
+
+        private static String first(
+            List<String> values)
+        {
+            return values.isEmpty() ? null : values.get(0);
+        }
+
+        private static List<String> others(
+            List<String> values)
+        {
+            return values.isEmpty() ? values : values.subList(1, values.size());
+        }
+    }
+
+    public static final class OAuthAuthorizationBuilder
+    {
+        private static final int ROLE_BITS = 40;
+        private static final int REALM_INDEX_MAX = (1 << 24) - 2;
+
+        private long realm;
+        private long roles;
+
+        private OAuthAuthorizationBuilder()
+        {
+        }
+
+        public OAuthAuthorizationBuilder realm(
+            int index)
+        {
+            if (index < 0 || index > REALM_INDEX_MAX)
+            {
+                throw new IllegalArgumentException(String.format("Realm index %d out of range", index));
+            }
+
+            this.realm = index;
+            return this;
+        }
+
+        public OAuthAuthorizationBuilder role(
+            int bit)
+        {
+            if (bit < 0 || bit >= ROLE_BITS)
+            {
+                throw new IllegalArgumentException(String.format("Role bit %d out of range", bit));
+            }
+
+            this.roles |= 1L << bit;
+            return this;
+        }
+
+        public long build()
+        {
+            // realm field 0 is reserved for external (unauthenticated) authorization
+            return (realm + 1) << ROLE_BITS | roles;
+        }
+    }
+
+    public static final class OAuthUpdateRolesExBuilder
+    {
+        private final OAuthUpdateRolesExFW.Builder updateRolesExRW;
+        private final List<String> added;
+        private final List<String> removed;
+
+        private OAuthUpdateRolesExBuilder()
+        {
+            MutableDirectBuffer writeExBuffer = new UnsafeBuffer(new byte[1024 * 8]);
+            this.updateRolesExRW = new OAuthUpdateRolesExFW.Builder().wrap(writeExBuffer, 0, writeExBuffer.capacity());
+            this.added = new ArrayList<>();
+            this.removed = new ArrayList<>();
+        }
+
+        public OAuthUpdateRolesExBuilder add(
+            String role)
+        {
+            added.add(role);
+            return this;
+        }
+
+        public OAuthUpdateRolesExBuilder remove(
+            String role)
+        {
+            removed.add(role);
+            return this;
+        }
+
+        public byte[] build()
+        {
+            final OAuthUpdateRolesExFW updateRolesEx = updateRolesExRW
+                    .added(a -> added.forEach(role -> a.item(i -> i.set(role, UTF_8))))
+                    .removed(r -> removed.forEach(role -> r.item(i -> i.set(role, UTF_8))))
+                    .build();
+            final byte[] array = new byte[updateRolesEx.sizeof()];
+            updateRolesEx.buffer().getBytes(updateRolesEx.offset(), array);
+            return array;
+        }
+    }
+
+    public static final class OAuthRevokeExBuilder
+    {
+        private final OAuthRevokeExFW.Builder revokeExRW;
+        private final List<String> jtis;
+        private final List<String> subjects;
+
+        private long expires;
+
+        private OAuthRevokeExBuilder()
+        {
+            MutableDirectBuffer writeExBuffer = new UnsafeBuffer(new byte[1024 * 8]);
+            this.revokeExRW = new OAuthRevokeExFW.Builder().wrap(writeExBuffer, 0, writeExBuffer.capacity());
+            this.jtis = new ArrayList<>();
+            this.subjects = new ArrayList<>();
+        }
+
+        public OAuthRevokeExBuilder expires(
+            long expires)
+        {
+            this.expires = expires;
+            return this;
+        }
+
+        public OAuthRevokeExBuilder jti(
+            String jti)
+        {
+            jtis.add(jti);
+            return this;
+        }
+
+        public OAuthRevokeExBuilder jtis(
+            String format,
+            int count)
+        {
+            IntStream.range(0, count).mapToObj(i -> String.format(format, i)).forEach(jtis::add);
+            return this;
+        }
+
+        public OAuthRevokeExBuilder subject(
+            String subject)
+        {
+            subjects.add(subject);
+            return this;
+        }
+
+        public OAuthRevokeExBuilder subjects(
+            String format,
+            int count)
+        {
+            IntStream.range(0, count).mapToObj(i -> String.format(format, i)).forEach(subjects::add);
+            return this;
+        }
+
+        public byte[] build()
+        {
+            final OAuthRevokeExFW revokeEx = revokeExRW
+                    .expires(expires)
+                    .jtis(j -> jtis.forEach(jti -> j.item(i -> i.set(jti, UTF_8))))
+                    .subjects(s -> subjects.forEach(subject -> s.item(i -> i.set(subject, UTF_8))))
+                    .build();
+            final byte[] array = new byte[revokeEx.sizeof()];
+            revokeEx.buffer().getBytes(revokeEx.offset(), array);
+            return array;
+        }
+    }
+
+    public static final class OAuthResolveBatchBuilder
+    {
+        private static final int OPTION_EXTENDED_AUTHORIZATION = 0x01;
+
+        private final Array32FW.Builder<OAuthResolveBatchEntryFW.Builder, OAuthResolveBatchEntryFW> entriesRW;
+        private final List<String> roles;
+
+        private String realm;
+        private String issuer;
+        private String audience;
+        private int options;
+
+        private OAuthResolveBatchBuilder()
+        {
+            MutableDirectBuffer writeBuffer = new UnsafeBuffer(new byte[1024 * 64]);
+            this.entriesRW = new Array32FW.Builder<>(new OAuthResolveBatchEntryFW.Builder(), new OAuthResolveBatchEntryFW())
+                    .wrap(writeBuffer, 0, writeBuffer.capacity());
+            this.roles = new ArrayList<>();
+        }
+
+        public OAuthResolveBatchBuilder entry(
+            String realm)
+        {
+            flushEntry();
+            this.realm = realm;
+            return this;
+        }
+
+        public OAuthResolveBatchBuilder role(
+            String role)
+        {
+            roles.add(role);
+            return this;
+        }
+
+        public OAuthResolveBatchBuilder issuer(
+            String issuer)
+        {
+            this.issuer = issuer;
+            return this;
+        }
+
+        public OAuthResolveBatchBuilder audience(
+            String audience)
+        {
+            this.audience = audience;
+            return this;
+        }
+
+        public OAuthResolveBatchBuilder entries(
+            String format,
+            int count)
+        {
+            for (int index = 0; index < count; index++)
+            {
+                entry(String.format(format, index));
+            }
+            return this;
+        }
+
+        public OAuthResolveBatchBuilder extended()
+        {
+            options |= OPTION_EXTENDED_AUTHORIZATION;
+            return this;
+        }
+
+        public byte[] build()
+        {
+            flushEntry();
+            final Array32FW<OAuthResolveBatchEntryFW> entries = entriesRW.build();
+            final byte[] array = new byte[entries.sizeof() + Byte.BYTES];
+            entries.buffer().getBytes(entries.offset(), array, 0, entries.sizeof());
+            array[entries.sizeof()] = (byte) options;
+            return array;
+        }
+
+        private void flushEntry()
+        {
+            if (realm != null)
+            {
+                entriesRW.item(e -> e.realm(realm)
+                                     .roles(r -> roles.forEach(role -> r.item(i -> i.set(role, UTF_8))))
+                                     .issuer(issuer)
+                                     .audience(audience));
+                realm = null;
+                issuer = null;
+                audience = null;
+                roles.clear();
+            }
+        }
+    }
+
+    public static final class OAuthResolvedBatchBuilder
+    {
+        private final Array32FW.Builder<OAuthAuthorizationFW.Builder, OAuthAuthorizationFW> authorizationsRW;
+
+        private OAuthResolvedBatchBuilder()
+        {
+            MutableDirectBuffer writeBuffer = new UnsafeBuffer(new byte[1024 * 64]);
+            this.authorizationsRW = new Array32FW.Builder<>(new OAuthAuthorizationFW.Builder(), new OAuthAuthorizationFW())
+                    .wrap(writeBuffer, 0, writeBuffer.capacity());
+        }
+
+        public OAuthResolvedBatchBuilder authorization(
+            long authorization)
+        {
+            authorizationsRW.item(a -> a.authorization(authorization));
+            return this;
+        }
+
+        public OAuthResolvedBatchBuilder realms(
+            int first,
+            int count)
+        {
+            for (int index = first; index < first + count; index++)
+            {
+                authorization(OAuthFunctions.authorization().realm(index).build());
+            }
+            return this;
+        }
+
+        public byte[] build()
+        {
+            final Array32FW<OAuthAuthorizationFW> authorizations = authorizationsRW.build();
+            final byte[] array = new byte[authorizations.sizeof()];
+            authorizations.buffer().getBytes(authorizations.offset(), array);
+            return array;
+        }
+    }
+
+    public static final class OAuthParamsBuilder
+    {
+        private static final String PADDING_NAME = "padding";
+
+        private final String prefix;
+        private final String separator;
+        private final StringBuilder params;
+
+        private int count;
+
+        private OAuthParamsBuilder(
+            String prefix,
+            String separator)
+        {
+            this.prefix = prefix;
+            this.separator = separator;
+            this.params = new StringBuilder();
+        }
+
+        public OAuthParamsBuilder param(
+            String name,
+            String value)
+        {
+            params.append(params.length() == 0 ? prefix : separator).append(name).append('=').append(value);
+            return this;
+        }
+
+        public OAuthParamsBuilder params(
+            int count)
+        {
+            for (int i = 0; i < count; i++, this.count++)
+            {
+                param(String.format("p%d", this.count), String.format("v%d", this.count));
+            }
+            return this;
+        }
+
+        public OAuthParamsBuilder paddedTo(
+            int length)
+        {
+            final int overhead = (params.length() == 0 ? prefix : separator).length() + PADDING_NAME.length() + 1;
+            final int padding = length - params.length() - overhead;
+            if (padding < 0)
+            {
+                throw new IllegalArgumentException(String.format("Cannot pad %d characters to %d", params.length(), length));
+            }
+
+            final char[] value = new char[padding];
+            Arrays.fill(value, 'x');
+            return param(PADDING_NAME, new String(value));
+        }
+
+        public String build()
+        {
+            return params.toString();
+        }
+    }
+
+    public static final class OAuthBeginExBuilder
+    {
+        private final OAuthBeginExFW.Builder beginExRW;
+
+        private int typeId;
+        private long expires;
+        private long affinity;
+        private long authorization;
+        private String subject;
+        private byte[] extension;
+
+        private OAuthBeginExBuilder()
+        {
+            MutableDirectBuffer writeBuffer = new UnsafeBuffer(new byte[1024 * 8]);
+            this.beginExRW = new OAuthBeginExFW.Builder().wrap(writeBuffer, 0, writeBuffer.capacity());
+            this.extension = new byte[0];
+        }
+
+        public OAuthBeginExBuilder typeId(
+            int typeId)
+        {
+            this.typeId = typeId;
+            return this;
+        }
+
+        public OAuthBeginExBuilder expires(
+            long expires)
+        {
+            this.expires = expires;
+            return this;
+        }
+
+        public OAuthBeginExBuilder affinity(
+            long affinity)
+        {
+            this.affinity = affinity;
+            return this;
+        }
+
+        public OAuthBeginExBuilder authorization(
+            long authorization)
+        {
+            this.authorization = authorization;
+            return this;
+        }
+
+        public OAuthBeginExBuilder subject(
+            String subject)
+        {
+            this.subject = subject;
+            return this;
+        }
+
+        public OAuthBeginExBuilder extension(
+            byte[] extension)
+        {
+            this.extension = extension;
+            return this;
+        }
+
+        public byte[] build()
+        {
+            final OAuthBeginExFW beginEx = beginExRW
+                    .typeId(typeId)
+                    .expires(expires)
+                    .affinity(affinity)
+                    .authorization(authorization)
+                    .subject(subject)
+                    .extension(new UnsafeBuffer(extension), 0, extension.length)
+                    .build();
+            final byte[] array = new byte[beginEx.sizeof()];
+            beginEx.buffer().getBytes(beginEx.offset(), array);
+            return array;
+        }
+    }
+
+    public static final class OAuthBeginExMatcherBuilder
+    {
+        private final DirectBuffer bufferRO;
+        private final OAuthBeginExFW beginExRO;
+
+        private Integer typeId;
+        private Long expires;
+        private Long affinity;
+        private Long authorization;
+        private String subject;
+        private byte[] extension;
+
+        private OAuthBeginExMatcherBuilder()
+        {
+            this.bufferRO = new UnsafeBuffer(new byte[0]);
+            this.beginExRO = new OAuthBeginExFW();
+        }
+
+        public OAuthBeginExMatcherBuilder typeId(
+            int typeId)
+        {
+            this.typeId = typeId;
+            return this;
+        }
+
+        public OAuthBeginExMatcherBuilder expires(
+            long expires)
+        {
+            this.expires = expires;
+            return this;
+        }
+
+        public OAuthBeginExMatcherBuilder affinity(
+            long affinity)
+        {
+            this.affinity = affinity;
+            return this;
+        }
+
+        public OAuthBeginExMatcherBuilder authorization(
+            long authorization)
+        {
+            this.authorization = authorization;
+            return this;
+        }
+
+        public OAuthBeginExMatcherBuilder subject(
+            String subject)
+        {
+            this.subject = subject;
+            return this;
+        }
+
+        public OAuthBeginExMatcherBuilder extension(
+            byte[] extension)
+        {
+            this.extension = extension;
+            return this;
+        }
+
+        public BytesMatcher build()
+        {
+            return typeId != null ? this::match : buf -> null;
+        }
+
+        private OAuthBeginExFW match(
+            ByteBuffer byteBuf) throws Exception
+        {
+            if (!byteBuf.hasRemaining())
+            {
+                return null;
+            }
+
+            bufferRO.wrap(byteBuf);
+            final OAuthBeginExFW beginEx = beginExRO.tryWrap(bufferRO, byteBuf.position(), byteBuf.limit());
+
+            if (beginEx != null &&
+                typeId == beginEx.typeId() &&
+                (expires == null || expires == beginEx.expires()) &&
+                (affinity == null || affinity == beginEx.affinity()) &&
+                (authorization == null || authorization == beginEx.authorization()) &&
+                (subject == null || subject.equals(beginEx.subject().asString())) &&
+                matchExtension(beginEx.extension()))
+            {
+                byteBuf.position(byteBuf.position() + beginEx.sizeof());
+                return beginEx;
+            }
+
+            throw new Exception(String.valueOf(beginEx));
+        }
+
+        private boolean matchExtension(
+            OctetsFW octets)
+        {
+            if (extension == null)
+            {
+                return true;
+            }
+
+            final byte[] actual = new byte[octets.sizeof()];
+            octets.buffer().getBytes(octets.offset(), actual);
+            return Arrays.equals(extension, actual);
+        }
+    }
+
+    private static final class JwtSigner
+    {
+        private static final int INTEGRITY_SIZE_MAX = 1024;
+
+        private static final byte DER_SEQUENCE = 0x30;
+        private static final byte DER_INTEGER = 0x02;
+        private static final int DER_LENGTH_1_BYTE = 0x81;
+
+        private static final String RSASSA_PSS = "RSASSA-PSS";
+        private static final AlgorithmParameterSpec RSASSA_PSS_SHA256 =
+                new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1);
+
+        private final Signature signature;
+        private final byte[] signed;
+        private final byte[] integrity;
+        private final DirectBuffer integrityRO;
+        private final IntUnaryOperator decoder;
+        private final int integerSize;
+
+        public void update(
+            byte[] data,
+            int offset,
+            int length) throws SignatureException
+        {
+            signature.update(data, offset, length);
+        }
+
+        public int sign() throws SignatureException
+        {
+            final int length = signature.sign(signed, 0, signed.length);
+            return decoder.applyAsInt(length);
+        }
+
+        public DirectBuffer integrity()
+        {
+            return integrityRO;
+        }
+
+        static int decodeDER(
+            byte[] der,
+            int offset,
+            int length,
+            byte[] rawIntegrity,
+            int rawOffset,
+            int integerSize)
+        {
+            final int limit = offset + length;
+
+            int progress = offset;
+            checkDER(progress + 2 <= limit && der[progress++] == DER_SEQUENCE);
+            int sequenceLength = der[progress++] & 0xff;
+            if (sequenceLength == DER_LENGTH_1_BYTE)
+            {
+                checkDER(progress < limit);
+                sequenceLength = der[progress++] & 0xff;
+            }
+            checkDER(progress + sequenceLength == limit);
+
+            progress = decodeInteger(der, progress, limit, rawIntegrity, rawOffset, integerSize);
+            progress = decodeInteger(der, progress, limit, rawIntegrity, rawOffset + integerSize, integerSize);
+            checkDER(progress == limit);
+
+            return integerSize << 1;
+        }
+
+        private static int decodeInteger(
+            byte[] der,
+            int offset,
+            int limit,
+            byte[] rawIntegrity,
+            int rawOffset,
+            int integerSize)
+        {
+            int progress = offset;
+            checkDER(progress + 2 <= limit && der[progress++] == DER_INTEGER);
+            final int length = der[progress++] & 0xff;
+            checkDER(length != 0 && length < DER_LENGTH_1_BYTE && progress + length <= limit);
+
+            final int excess = Math.max(length - integerSize, 0);
+            checkDER(excess == 0 || excess == 1 && der[progress] == 0);
+
+            final int valueLength = length - excess;
+            final int padding = integerSize - valueLength;
+            Arrays.fill(rawIntegrity, rawOffset, rawOffset + padding, (byte) 0);
+            System.arraycopy(der, progress + excess, rawIntegrity, rawOffset + padding, valueLength);
+
+            return progress + length;
+        }
+
+        private static void checkDER(
+            boolean condition)
+        {
+            if (!condition)
+            {
+                throw new IllegalArgumentException("Malformed DER signature");
+            }
+        }
+
+        private int decodeIntegrity(
+            int length)
+        {
+            return decodeDER(signed, 0, length, integrity, 0, integerSize);
+        }
+
+        private JwtSigner(
+            Signature signature,
+            int integerSize)
+        {
+            this.signature = signature;
+            this.integrity = new byte[INTEGRITY_SIZE_MAX];
+            this.signed = integerSize != 0 ? new byte[INTEGRITY_SIZE_MAX] : integrity;
+            this.integrityRO = new UnsafeBuffer(integrity);
+            this.integerSize = integerSize;
+            this.decoder = integerSize != 0 ? this::decodeIntegrity : IntUnaryOperator.identity();
+        }
+
+        private static JwtSigner newSigner(
+            String algorithm,
+            PrivateKey privateKey)
+        {
+            JwtSigner newSigner = null;
+            try
+            {
+                Signature signature = Signature.getInstance(algorithm);
+                if (RSASSA_PSS.equals(algorithm))
+                {
+                    signature.setParameter(RSASSA_PSS_SHA256);
+                }
+                signature.initSign(privateKey);
+
+                int integerSize = 0;
+                if (algorithm.endsWith("withECDSA"))
+                {
+                    ECPrivateKey ecPrivateKey = (ECPrivateKey) privateKey;
+                    integerSize = (ecPrivateKey.getParams().getCurve().getField().getFieldSize() + 7) >> 3;
+                }
+
+                newSigner = new JwtSigner(signature, integerSize);
+            }
+            catch (GeneralSecurityException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+            return newSigner;
+        }
+    }
+
+    // loaded on first lookup of a rotating kid, so scripts that never sign with the rotating key set skip parsing it
+    private static final class RotatingKeys
+    {
+        private static final OAuthJwtKeyRegistry KEYS;
+
+        static
+        {
+            try
+            {
+                KEYS = new OAuthJwtKeyRegistry().load(OAuthFunctions.class.getResource(ROTATING_KEYS_RESOURCE_NAME));
+            }
+            catch (IOException | GeneralSecurityException ex)
+            {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    private static final class JwtSignerPool
+    {
+        private static final int CAPACITY = getRuntime().availableProcessors() << 1;
+
+        private static final int WARMUP_SIGNATURES = 32;
+        private static final byte[] WARMUP_INPUT = "{\"alg\":\"none\"}.{}".getBytes(US_ASCII);
+
+        private static final Map<String, Map<PrivateKey, JwtSignerPool>> POOLS = new ConcurrentHashMap<>();
+
+        private final String algorithm;
+        private final PrivateKey privateKey;
+        private final AtomicReferenceArray<JwtSigner> signers;
+        private final AtomicBoolean warmedUp;
+
+        static JwtSignerPool of(
+            String algorithm,
+            PrivateKey privateKey)
+        {
+            return POOLS.computeIfAbsent(algorithm, a -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(privateKey, k -> new JwtSignerPool(algorithm, k));
+        }
+
+        private JwtSignerPool(
+            String algorithm,
+            PrivateKey privateKey)
+        {
+            this.algorithm = algorithm;
+            this.privateKey = privateKey;
+            this.signers = new AtomicReferenceArray<>(CAPACITY);
+            this.warmedUp = new AtomicBoolean();
+        }
+
+        JwtSigner acquire()
+        {
+            JwtSigner signer = null;
+            for (int index = 0; signer == null && index < CAPACITY; index++)
+            {
+                final JwtSigner candidate = signers.get(index);
+                if (candidate != null && signers.compareAndSet(index, candidate, null))
+                {
+                    signer = candidate;
+                }
+            }
+
+            return signer != null ? signer : JwtSigner.newSigner(algorithm, privateKey);
+        }
+
+        void release(
+            JwtSigner signer)
+        {
+            boolean released = false;
+            for (int index = 0; !released && index < CAPACITY; index++)
+            {
+                released = signers.get(index) == null && signers.compareAndSet(index, null, signer);
+            }
+        }
+
+        void warmup(
+            int count) throws GeneralSecurityException
+        {
+            if (warmedUp.compareAndSet(false, true))
+            {
+                final JwtSigner[] warmed = new JwtSigner[Math.min(count, CAPACITY)];
+                for (int index = 0; index < warmed.length; index++)
+                {
+                    warmed[index] = acquire();
+                }
+
+                for (int index = 0; index < WARMUP_SIGNATURES; index++)
+                {
+                    final JwtSigner signer = warmed[index % warmed.length];
+                    signer.update(WARMUP_INPUT, 0, WARMUP_INPUT.length);
+                    signer.sign();
+                }
+
+                for (JwtSigner signer : warmed)
+                {
+                    release(signer);
+                }
             }
-            return newSigner;
         }
     }
 
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.specification.nukleus.oauth.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+
+// Generates large JWK sets for key lookup scaling scenarios, seeded so that the same seed and count
+// always produce the same keys; every eighth key is RSA, the others alternate between P-256 and P-384
+public final class OAuthJwksGenerator
+{
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecureRandom random;
+
+    public OAuthJwksGenerator(
+        long seed) throws GeneralSecurityException
+    {
+        this.random = SecureRandom.getInstance("SHA1PRNG");
+        this.random.setSeed(BigInteger.valueOf(seed).toByteArray());
+    }
+
+    public void generate(
+        int count,
+        Appendable publicKeys,
+        Appendable privateKeys) throws IOException, GeneralSecurityException
+    {
+        publicKeys.append("{\n  \"keys\":\n  [\n");
+        privateKeys.append("{\n  \"keys\":\n  [\n");
+
+        for (int index = 0; index < count; index++)
+        {
+            final String kid = String.format("rotating-%03d", index);
+
+            if (index != 0)
+            {
+                publicKeys.append(",\n\n");
+                privateKeys.append(",\n\n");
+            }
+
+            if (index % 8 == 0)
+            {
+                generateRSA(kid, publicKeys, privateKeys);
+            }
+            else if (index % 2 != 0)
+            {
+                generateEC(kid, "P-256", "ES256", publicKeys, privateKeys);
+            }
+            else
+            {
+                generateEC(kid, "P-384", "ES384", publicKeys, privateKeys);
+            }
+        }
+
+        publicKeys.append("\n  ]\n}\n");
+        privateKeys.append("\n  ]\n}\n");
+    }
+
+    private void generateRSA(
+        String kid,
+        Appendable publicKeys,
+        Appendable privateKeys) throws IOException, GeneralSecurityException
+    {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048, random);
+
+        final KeyPair keyPair = generator.generateKeyPair();
+        final RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        final RSAPrivateCrtKey privateKey = (RSAPrivateCrtKey) keyPair.getPrivate();
+
+        for (Appendable keys : Arrays.asList(publicKeys, privateKeys))
+        {
+            keys.append("    {\n");
+            append(keys, "kid", kid);
+            append(keys, "kty", "RSA");
+            append(keys, "n", encode(publicKey.getModulus(), 0));
+            append(keys, "e", encode(publicKey.getPublicExponent(), 0));
+        }
+
+        append(privateKeys, "d", encode(privateKey.getPrivateExponent(), 0));
+        append(privateKeys, "p", encode(privateKey.getPrimeP(), 0));
+        append(privateKeys, "q", encode(privateKey.getPrimeQ(), 0));
+        append(privateKeys, "dp", encode(privateKey.getPrimeExponentP(), 0));
+        append(privateKeys, "dq", encode(privateKey.getPrimeExponentQ(), 0));
+        append(privateKeys, "qi", encode(privateKey.getCrtCoefficient(), 0));
+
+        for (Appendable keys : Arrays.asList(publicKeys, privateKeys))
+        {
+            keys.append("      \"alg\":\"RS256\"\n");
+            keys.append("    }");
+        }
+    }
+
+    private void generateEC(
+        String kid,
+        String crv,
+        String alg,
+        Appendable publicKeys,
+        Appendable privateKeys) throws IOException, GeneralSecurityException
+    {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(String.format("NIST %s", crv)), random);
+
+        final KeyPair keyPair = generator.generateKeyPair();
+        final ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+        final ECPrivateKey privateKey = (ECPrivateKey) keyPair.getPrivate();
+        final int size = (publicKey.getParams().getCurve().getField().getFieldSize() + 7) >> 3;
+
+        for (Appendable keys : Arrays.asList(publicKeys, privateKeys))
+        {
+            keys.append("    {\n");
+            append(keys, "kid", kid);
+            append(keys, "kty", "EC");
+            append(keys, "crv", crv);
+            append(keys, "x", encode(publicKey.getW().getAffineX(), size));
+            append(keys, "y", encode(publicKey.getW().getAffineY(), size));
+        }
+
+        append(privateKeys, "d", encode(privateKey.getS(), size));
+
+        for (Appendable keys : Arrays.asList(publicKeys, privateKeys))
+        {
+            keys.append(String.format("      \"alg\":\"%s\"\n", alg));
+            keys.append("    }");
+        }
+    }
+
+    public static void main(
+        String[] args) throws IOException, GeneralSecurityException
+    {
+        if (args.length != 4)
+        {
+            throw new IllegalArgumentException("usage: OAuthJwksGenerator <count> <seed> <public-jwks> <private-jwks>");
+        }
+
+        final int count = Integer.parseInt(args[0]);
+        final long seed = Long.parseLong(args[1]);
+
+        try (Writer publicKeys = Files.newBufferedWriter(Paths.get(args[2]), UTF_8);
+             Writer privateKeys = Files.newBufferedWriter(Paths.get(args[3]), UTF_8))
+        {
+            new OAuthJwksGenerator(seed).generate(count, publicKeys, privateKeys);
+        }
+    }
+
+    private static void append(
+        Appendable keys,
+        String name,
+        String value) throws IOException
+    {
+        keys.append(String.format("      \"%s\":\"%s\",\n", name, value));
+    }
+
+    private static String encode(
+        BigInteger value,
+        int size)
+    {
+        byte[] bytes = value.toByteArray();
+        int length = bytes.length;
+        int offset = 0;
+        if (bytes[0] == 0 && length > 1)
+        {
+            offset = 1;
+            length--;
+        }
+
+        byte[] encoded = new byte[Math.max(size, length)];
+        System.arraycopy(bytes, offset, encoded, encoded.length - length, length);
+        return BASE64.encodeToString(encoded);
+    }
+}
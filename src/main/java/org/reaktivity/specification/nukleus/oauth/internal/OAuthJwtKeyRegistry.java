@@ -0,0 +1,168 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.specification.nukleus.oauth.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableMap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class OAuthJwtKeyRegistry
+{
+    private static final Pattern JWK_PATTERN = Pattern.compile("\\{[^{}]*\\}");
+    private static final Pattern PARAM_PATTERN = Pattern.compile("\"([^\"]+)\"\\s*:\\s*\"([^\"]*)\"");
+
+    private static final Map<String, String> ALGORITHMS;
+
+    static
+    {
+        Map<String, String> algorithms = new HashMap<>();
+        algorithms.put("RS256", "SHA256withRSA");
+        algorithms.put("RS384", "SHA384withRSA");
+        algorithms.put("RS512", "SHA512withRSA");
+        algorithms.put("PS256", "RSASSA-PSS");
+        algorithms.put("ES256", "SHA256withECDSA");
+        algorithms.put("ES384", "SHA384withECDSA");
+        algorithms.put("ES512", "SHA512withECDSA");
+        ALGORITHMS = unmodifiableMap(algorithms);
+    }
+
+    private final Map<String, OAuthJwtKey> keysByKid;
+
+    public OAuthJwtKeyRegistry()
+    {
+        this.keysByKid = new HashMap<>();
+    }
+
+    public OAuthJwtKeyRegistry register(
+        String kid,
+        String alg,
+        KeyPair keyPair)
+    {
+        final String algorithm = ALGORITHMS.get(alg);
+        if (algorithm == null)
+        {
+            throw new IllegalArgumentException(String.format("Unsupported alg \"%s\" for kid \"%s\"", alg, kid));
+        }
+
+        keysByKid.put(kid, new OAuthJwtKey(kid, alg, algorithm, keyPair));
+        return this;
+    }
+
+    public OAuthJwtKeyRegistry load(
+        URL location) throws IOException, GeneralSecurityException
+    {
+        try (InputStream input = location.openStream())
+        {
+            return load(new String(input.readAllBytes(), UTF_8));
+        }
+    }
+
+    public OAuthJwtKeyRegistry load(
+        Path location) throws IOException, GeneralSecurityException
+    {
+        return load(new String(Files.readAllBytes(location), UTF_8));
+    }
+
+    public OAuthJwtKeyRegistry load(
+        String jwks) throws GeneralSecurityException
+    {
+        final Matcher jwk = JWK_PATTERN.matcher(jwks);
+        while (jwk.find())
+        {
+            final Map<String, String> params = new HashMap<>();
+            final Matcher param = PARAM_PATTERN.matcher(jwk.group());
+            while (param.find())
+            {
+                params.put(param.group(1), param.group(2));
+            }
+
+            final String kid = params.get("kid");
+            final String alg = params.get("alg");
+            if (kid != null && alg != null && params.containsKey("d"))
+            {
+                register(kid, alg, OAuthJwtKeys.initKeyPair(params));
+            }
+        }
+        return this;
+    }
+
+    public OAuthJwtKey lookup(
+        String kid)
+    {
+        final OAuthJwtKey key = keysByKid.get(kid);
+        if (key == null)
+        {
+            throw new IllegalArgumentException(String.format("Unknown kid \"%s\"", kid));
+        }
+        return key;
+    }
+
+    public int size()
+    {
+        return keysByKid.size();
+    }
+
+    public static final class OAuthJwtKey
+    {
+        private final String kid;
+        private final String alg;
+        private final String algorithm;
+        private final KeyPair keyPair;
+
+        private OAuthJwtKey(
+            String kid,
+            String alg,
+            String algorithm,
+            KeyPair keyPair)
+        {
+            this.kid = kid;
+            this.alg = alg;
+            this.algorithm = algorithm;
+            this.keyPair = keyPair;
+        }
+
+        public String kid()
+        {
+            return kid;
+        }
+
+        public String alg()
+        {
+            return alg;
+        }
+
+        public String algorithm()
+        {
+            return algorithm;
+        }
+
+        public KeyPair keyPair()
+        {
+            return keyPair;
+        }
+    }
+}
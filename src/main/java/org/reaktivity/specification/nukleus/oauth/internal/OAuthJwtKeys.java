@@ -20,6 +20,7 @@ import java.security.AlgorithmParameters;
 import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
 import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.spec.ECGenParameterSpec;
@@ -38,6 +39,7 @@ public final class OAuthJwtKeys
 {
     public static final KeyPair RFC7515_RS256;
     public static final KeyPair RFC7515_ES256;
+    public static final KeyPair RFC7515_ES512;
 
     static
     {
@@ -81,10 +83,22 @@ public final class OAuthJwtKeys
         es256.put("y", "x_FEzRu9m36HLN_tue659LNpXW6pCyStikYjKIWI5a0");
         es256.put("d", "jpsQnnGQmL-YBIffH1136cspYG6-0iY7X1fCE9-E9LI");
 
+        // RFC 7515, section A.4.1
+        Map<String, String> es512 = new HashMap<>();
+        es512.put("kty", "EC");
+        es512.put("crv", "P-521");
+        es512.put("x", "AekpBQ8ST8a8VcfVOTNl353vSrDCLLJXmPk06wTjxrrjcBpXp5EOnYG_" +
+                       "NjFZ6OvLFV1jSfS9tsz4qUxcWceqwQGk");
+        es512.put("y", "ADSmRA43Z1DSNx_RvcLI87cdL07l6jQyyBXMoxVg_l2Th-x3S1WDhjDl" +
+                       "y79ajL4Kkd0AZMaZmh9ubmf63e3kyMj2");
+        es512.put("d", "AY5pb7A0UFiB3RELSD64fTLOSV_jazdF7fLYyuTw8lOfRhWg6Y6rUrPA" +
+                       "xerEzgdRhajnu0ferB0d53vM9mE15j2C");
+
         try
         {
             RFC7515_RS256 = initRSAKeyPair(rsa256);
             RFC7515_ES256 = initECKeyPair(es256);
+            RFC7515_ES512 = initECKeyPair(es512);
         }
         catch (GeneralSecurityException ex)
         {
@@ -92,6 +106,26 @@ public final class OAuthJwtKeys
         }
     }
 
+    static KeyPair initKeyPair(
+        Map<String, String> params) throws GeneralSecurityException
+    {
+        final String kty = params.get("kty");
+
+        KeyPair keyPair;
+        switch (kty)
+        {
+        case "RSA":
+            keyPair = initRSAKeyPair(params);
+            break;
+        case "EC":
+            keyPair = initECKeyPair(params);
+            break;
+        default:
+            throw new NoSuchAlgorithmException(kty);
+        }
+        return keyPair;
+    }
+
     private static KeyPair initRSAKeyPair(
         Map<String, String> params) throws GeneralSecurityException
     {
@@ -35,6 +35,46 @@ public class ControlIT
     @Rule
     public final TestRule chain = outerRule(k3po).around(timeout);
 
+    @Test
+    @Specification({
+        "resolve/batch.realms/nukleus",
+        "resolve/batch.realms/controller"
+    })
+    public void shouldResolveBatchOfRealms() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "resolve/batch.realms.with.roles.issuer.and.audience/nukleus",
+        "resolve/batch.realms.with.roles.issuer.and.audience/controller"
+    })
+    public void shouldResolveBatchOfRealmsWithRolesIssuerAndAudience() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "resolve/batch.extended.realms/nukleus",
+        "resolve/batch.extended.realms/controller"
+    })
+    public void shouldResolveBatchOfExtendedRealms() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "resolve/extended.realms/nukleus",
+        "resolve/extended.realms/controller"
+    })
+    public void shouldResolveExtendedRealms() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "resolve/fails.too.many.roles/nukleus",
@@ -65,6 +105,16 @@ public class ControlIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "resolve/one.realm.with.multiple.issuers.and.audiences/nukleus",
+        "resolve/one.realm.with.multiple.issuers.and.audiences/controller"
+    })
+    public void shouldResolveOneRealmWithMultipleIssuersAndAudiences() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "resolve/with.roles/nukleus",
@@ -85,6 +135,16 @@ public class ControlIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "route/proxy/pipelined/nukleus",
+        "route/proxy/pipelined/controller"
+    })
+    public void shouldRouteProxyPipelined() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "unresolve/fails.unknown.realm/nukleus",
@@ -129,6 +189,78 @@ public class ControlIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "resolve/with.roles/nukleus",
+        "resolve/with.roles/controller",
+        "update/add.roles/nukleus",
+        "update/add.roles/controller"
+    })
+    public void shouldUpdateRolesAdded() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "resolve/with.roles/nukleus",
+        "resolve/with.roles/controller",
+        "update/add.and.remove.roles/nukleus",
+        "update/add.and.remove.roles/controller"
+    })
+    public void shouldUpdateRolesAddedAndRemoved() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "resolve/with.roles/nukleus",
+        "resolve/with.roles/controller",
+        "update/remove.roles/nukleus",
+        "update/remove.roles/controller"
+    })
+    public void shouldUpdateRolesRemoved() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "resolve/with.roles/nukleus",
+        "resolve/with.roles/controller",
+        "revoke/jtis/nukleus",
+        "revoke/jtis/controller"
+    })
+    public void shouldRevokeJtis() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "revoke/inflight.jti/nukleus",
+        "revoke/inflight.jti/controller"
+    })
+    public void shouldRevokeInflightJti() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("REQUEST_FORWARDED");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "resolve/with.roles/nukleus",
+        "resolve/with.roles/controller",
+        "revoke/subjects/nukleus",
+        "revoke/subjects/controller"
+    })
+    public void shouldRevokeSubjects() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "resolve/with.roles/nukleus",
@@ -153,4 +285,16 @@ public class ControlIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "route/proxy/pipelined/nukleus",
+        "route/proxy/pipelined/controller",
+        "unroute/proxy/pipelined/nukleus",
+        "unroute/proxy/pipelined/controller"
+    })
+    public void shouldUnrouteProxyPipelined() throws Exception
+    {
+        k3po.finish();
+    }
+
 }
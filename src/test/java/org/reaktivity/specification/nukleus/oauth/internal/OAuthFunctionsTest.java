@@ -15,23 +15,58 @@
  */
 package org.reaktivity.specification.nukleus.oauth.internal;
 
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.kaazing.k3po.lang.internal.el.ExpressionFactoryUtils.newExpressionFactory;
+import static org.reaktivity.specification.nukleus.oauth.internal.OAuthJwtKeys.RFC7515_ES256;
+import static org.reaktivity.specification.nukleus.oauth.internal.OAuthJwtKeys.RFC7515_ES512;
 import static org.reaktivity.specification.nukleus.oauth.internal.OAuthJwtKeys.RFC7515_RS256;
 
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.el.ELContext;
 import javax.el.ExpressionFactory;
 import javax.el.ValueExpression;
 
 import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Before;
 import org.junit.Test;
+import org.kaazing.k3po.lang.el.BytesMatcher;
 import org.kaazing.k3po.lang.internal.el.ExpressionContext;
+import org.reaktivity.specification.oauth.internal.types.Array32FW;
+import org.reaktivity.specification.oauth.internal.types.control.OAuthAuthorizationFW;
+import org.reaktivity.specification.oauth.internal.types.control.OAuthResolveBatchEntryFW;
 import org.reaktivity.specification.oauth.internal.types.control.OAuthResolveExFW;
+import org.reaktivity.specification.oauth.internal.types.control.OAuthRevokeExFW;
+import org.reaktivity.specification.oauth.internal.types.control.OAuthUpdateRolesExFW;
+import org.reaktivity.specification.oauth.internal.types.stream.OAuthBeginExFW;
 
 public final class OAuthFunctionsTest
 {
@@ -73,6 +108,400 @@ public final class OAuthFunctionsTest
         assertNotNull(token);
     }
 
+    @Test
+    public void shouldSignJWTwithRS256Concurrently() throws Exception
+    {
+        shouldSignJWTConcurrently("RS256", RFC7515_RS256.getPublic(), "SHA256withRSA");
+    }
+
+    @Test
+    public void shouldSignJWTwithES256Concurrently() throws Exception
+    {
+        shouldSignJWTConcurrently("ES256", RFC7515_ES256.getPublic(), "SHA256withECDSAinP1363Format");
+    }
+
+    @Test
+    public void shouldReuseCachedJWT() throws Exception
+    {
+        OAuthFunctions.JwtTokenCache cache = OAuthFunctions.tokenCache("ES256");
+        long hits = cache.hits();
+        long misses = cache.misses();
+
+        Set<String> tokens = new HashSet<>();
+        for (int i = 0; i < 3; i++)
+        {
+            tokens.add(OAuthFunctions.jwt("ES256")
+                                     .claim("iss", "cached issuer")
+                                     .claim("sub", "cached subject")
+                                     .cached()
+                                     .sign());
+        }
+
+        assertEquals(1, tokens.size());
+        assertEquals(2, cache.hits() - hits);
+        assertEquals(1, cache.misses() - misses);
+        assertTrue(cache.size() > 0);
+    }
+
+    @Test
+    public void shouldReuseCachedJWTregardlessOfClaimOrder() throws Exception
+    {
+        OAuthFunctions.JwtTokenCache cache = new OAuthFunctions.JwtTokenCache(2);
+
+        String token = OAuthFunctions.jwt("ES256")
+                                     .claim("iss", "cached issuer")
+                                     .claim("sub", "cached subject")
+                                     .cached(cache)
+                                     .sign();
+        String reordered = OAuthFunctions.jwt("ES256")
+                                         .claim("sub", "cached subject")
+                                         .claim("iss", "cached issuer")
+                                         .cached(cache)
+                                         .sign();
+
+        assertEquals(token, reordered);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedJWT() throws Exception
+    {
+        OAuthFunctions.JwtTokenCache cache = new OAuthFunctions.JwtTokenCache(2);
+
+        String tokenA = signCached(cache, "subject A");
+        String tokenB = signCached(cache, "subject B");
+        assertEquals(tokenA, signCached(cache, "subject A"));
+        signCached(cache, "subject C");
+
+        assertEquals(2, cache.size());
+        assertEquals(tokenA, signCached(cache, "subject A"));
+        assertNotEquals(tokenB, signCached(cache, "subject B"));
+        assertEquals(2, cache.hits());
+        assertEquals(4, cache.misses());
+    }
+
+    @Test
+    public void shouldInvalidateExpiredCachedJWT() throws Exception
+    {
+        OAuthFunctions.JwtTokenCache cache = new OAuthFunctions.JwtTokenCache(2);
+        OAuthFunctions.JwtHelper jwt = OAuthFunctions.jwt("ES256")
+                                                     .clock(OAuthFunctions.fixedClock(1600000000L))
+                                                     .claim("sub", "expiring subject")
+                                                     .expiresAt(1600000010L)
+                                                     .cached(cache);
+
+        String token = jwt.sign();
+        assertEquals(token, jwt.sign());
+
+        jwt.clock(OAuthFunctions.fixedClock(1600000010L));
+        assertNotEquals(token, jwt.sign());
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void shouldNotCacheJWTByDefault() throws Exception
+    {
+        OAuthFunctions.JwtTokenCache cache = OAuthFunctions.tokenCache("ES256");
+        long hits = cache.hits();
+        long misses = cache.misses();
+
+        OAuthFunctions.JwtHelper jwt = OAuthFunctions.jwt("ES256")
+                                                     .claim("sub", "uncached subject");
+
+        assertNotEquals(jwt.sign(), jwt.sign());
+        assertEquals(hits, cache.hits());
+        assertEquals(misses, cache.misses());
+    }
+
+    @Test
+    public void shouldSignJWTintoBuffer() throws Exception
+    {
+        OAuthFunctions.JwtHelper jwt = OAuthFunctions.jwt("RS256")
+                                                     .claim("iss", "test issuer")
+                                                     .claim("aud", "test audience1", "test audience2")
+                                                     .claim("exp", 1809072000);
+        String expected = jwt.sign();
+
+        MutableDirectBuffer buffer = new UnsafeBuffer(new byte[2048], 16, 1024);
+        int length = jwt.sign(buffer, 8);
+
+        assertEquals(expected, buffer.getStringWithoutLengthAscii(8, length));
+
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        String header64 = base64.encodeToString("{\"kid\":\"RS256\",\"alg\":\"RS256\"}".getBytes(UTF_8));
+        String payload64 = base64.encodeToString(
+            "{\"iss\":\"test issuer\",\"aud\":[\"test audience1\",\"test audience2\"],\"exp\":1809072000}".getBytes(UTF_8));
+        assertTrue(expected.startsWith(String.format("%s.%s.", header64, payload64)));
+        assertVerified(expected, RFC7515_RS256.getPublic(), "SHA256withRSA");
+    }
+
+    @Test
+    public void shouldSignJWTintoDirectBuffer() throws Exception
+    {
+        OAuthFunctions.JwtHelper jwt = OAuthFunctions.jwt("ES256")
+                                                     .claim("sub", "test subject");
+
+        MutableDirectBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        for (int offset = 0; offset < 3; offset++)
+        {
+            int length = jwt.sign(buffer, offset);
+            String token = buffer.getStringWithoutLengthAscii(offset, length);
+
+            String payload = assertVerified(token, RFC7515_ES256.getPublic(), "SHA256withECDSAinP1363Format");
+            assertEquals("{\"sub\":\"test subject\"}", payload);
+        }
+    }
+
+    @Test
+    public void shouldSignJWTfromRotatingKeySet() throws Exception
+    {
+        PublicKey publicKey = new OAuthJwtKeyRegistry()
+            .load(getClass().getResource("/keys/rotatingSigningKeys.jwk"))
+            .lookup("rotating-255")
+            .keyPair()
+            .getPublic();
+
+        String token = OAuthFunctions.jwt("rotating-255")
+                                     .claim("sub", "test subject")
+                                     .sign();
+
+        String payload = assertVerified(token, publicKey, "SHA256withECDSAinP1363Format");
+        assertEquals("{\"sub\":\"test subject\"}", payload);
+    }
+
+    @Test
+    public void shouldSignJWTwithFixedClock() throws Exception
+    {
+        String token = OAuthFunctions.jwt("RS256")
+                                     .clock(OAuthFunctions.fixedClock(1600000000L))
+                                     .expiresInSeconds(60)
+                                     .sign();
+
+        String payload = assertVerified(token, RFC7515_RS256.getPublic(), "SHA256withRSA");
+        assertEquals("{\"exp\":1600000060}", payload);
+    }
+
+    @Test
+    public void shouldSignJWTwithOffsetClock() throws Exception
+    {
+        long now = MILLISECONDS.toSeconds(currentTimeMillis());
+        String token = OAuthFunctions.jwt("RS256")
+                                     .clock(OAuthFunctions.offsetClock(3600L))
+                                     .expiresInSeconds(60)
+                                     .sign();
+
+        String payload = assertVerified(token, RFC7515_RS256.getPublic(), "SHA256withRSA");
+        long expiry = Long.parseLong(payload.replaceAll("\\{\"exp\":(\\d+)}", "$1"));
+        assertTrue(expiry >= now + 3660 && expiry <= now + 3661);
+    }
+
+    @Test
+    public void shouldSignJWTwithDefaultClock() throws Exception
+    {
+        OAuthFunctions.clock(OAuthFunctions.fixedClock(1600000000L));
+        try
+        {
+            String[] tokens = OAuthFunctions.jwt("ES256")
+                                            .batch(2)
+                                            .expiresInSeconds(10, 5)
+                                            .sign();
+
+            assertTrue(assertVerified(tokens[0], RFC7515_ES256.getPublic(), "SHA256withECDSAinP1363Format")
+                    .matches("\\{ *\"exp\":1600000010}"));
+            assertTrue(assertVerified(tokens[1], RFC7515_ES256.getPublic(), "SHA256withECDSAinP1363Format")
+                    .matches("\\{ *\"exp\":1600000015}"));
+        }
+        finally
+        {
+            OAuthFunctions.clock(Clock.systemUTC());
+        }
+    }
+
+    @Test
+    public void shouldReturnNowFromDefaultClock() throws Exception
+    {
+        OAuthFunctions.clock(OAuthFunctions.fixedClock(1600000000L));
+        try
+        {
+            assertEquals(1600000000L, OAuthFunctions.now());
+        }
+        finally
+        {
+            OAuthFunctions.clock(Clock.systemUTC());
+        }
+    }
+
+    @Test
+    public void shouldSignJWTwithAbsoluteTimesInExpression() throws Exception
+    {
+        String expressionText = "${oauth:jwt(\"RS256\").issuedAt(1600000000).notBefore(1600000005).expiresAt(1600000060).sign()}";
+        ValueExpression expression = factory.createValueExpression(ctx, expressionText, String.class);
+        String token = (String) expression.getValue(ctx);
+
+        String payload = assertVerified(token, RFC7515_RS256.getPublic(), "SHA256withRSA");
+        assertEquals("{\"iat\":1600000000,\"nbf\":1600000005,\"exp\":1600000060}", payload);
+    }
+
+    @Test
+    public void shouldSignBatchOfJWTs() throws Exception
+    {
+        String[] tokens = OAuthFunctions.jwt("RS256")
+                                        .claim("iss", "test issuer")
+                                        .batch(16)
+                                        .subject("subject-%d")
+                                        .jti("token-%d")
+                                        .expiresInSeconds(60, 1)
+                                        .sign();
+
+        assertEquals(16, tokens.length);
+        for (int i = 0; i < tokens.length; i++)
+        {
+            String payload = assertVerified(tokens[i], RFC7515_RS256.getPublic(), "SHA256withRSA");
+            assertTrue(payload.matches(String.format(
+                    "\\{\"iss\":\"test issuer\" *,\"sub\":\"subject-%d\",\"jti\":\"token-%d\",\"exp\":\\d+}", i, i)));
+        }
+    }
+
+    @Test
+    public void shouldSignBatchOfJWTsOnExecutor() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            String[] tokens = OAuthFunctions.jwt("RS256")
+                                            .batch(16)
+                                            .jti("token-%d")
+                                            .executor(executor)
+                                            .sign();
+
+            assertEquals(16, tokens.length);
+            for (int i = 0; i < tokens.length; i++)
+            {
+                String payload = assertVerified(tokens[i], RFC7515_RS256.getPublic(), "SHA256withRSA");
+                assertTrue(payload.matches(String.format("\\{ *\"jti\":\"token-%d\"}", i)));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldSignBatchOfJWTsWithoutTemplateClaims() throws Exception
+    {
+        String[] tokens = OAuthFunctions.jwt("ES256")
+                                        .batch(4)
+                                        .expiresInSeconds(60)
+                                        .sign();
+
+        assertEquals(4, tokens.length);
+        for (String token : tokens)
+        {
+            String payload = assertVerified(token, RFC7515_ES256.getPublic(), "SHA256withECDSAinP1363Format");
+            assertTrue(payload.matches("\\{ *\"exp\":\\d+}"));
+        }
+    }
+
+    @Test
+    public void shouldSignBatchOfJWTsInExpression() throws Exception
+    {
+        String expressionText = "${oauth:jwt(\"RS256\").batch(2).jti(\"token-%d\").sign()[1]}";
+        ValueExpression expression = factory.createValueExpression(ctx, expressionText, String.class);
+        String token = (String) expression.getValue(ctx);
+
+        String payload = assertVerified(token, RFC7515_RS256.getPublic(), "SHA256withRSA");
+        assertTrue(payload.matches("\\{ *\"jti\":\"token-1\"}"));
+    }
+
+    @Test
+    public void shouldSignBatchOfCorruptedJWTs() throws Exception
+    {
+        String[] tokens = OAuthFunctions.jwt("ES256")
+                                        .batch(6)
+                                        .jti("token-%d")
+                                        .corrupt("truncated", "kid", "flipped")
+                                        .sign();
+
+        assertEquals(6, tokens.length);
+        for (int i = 0; i < tokens.length; i++)
+        {
+            String token = tokens[i];
+            int signatureAt = token.lastIndexOf('.');
+            String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), UTF_8);
+            byte[] integrity = Base64.getUrlDecoder().decode(token.substring(signatureAt + 1));
+
+            switch (i % 3)
+            {
+            case 0:
+                assertEquals("{\"kid\":\"ES256\",\"alg\":\"ES256\"}", header);
+                assertEquals(32, integrity.length);
+                break;
+            case 1:
+                assertEquals("{\"kid\":\"unknown\",\"alg\":\"ES256\"}", header);
+                assertVerified(token, RFC7515_ES256.getPublic(), "SHA256withECDSAinP1363Format");
+                break;
+            default:
+                assertEquals("{\"kid\":\"ES256\",\"alg\":\"ES256\"}", header);
+                assertEquals(64, integrity.length);
+                assertFalse(verify(token, RFC7515_ES256.getPublic(), "SHA256withECDSAinP1363Format"));
+                break;
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailSignBatchWithUnknownCorruption()
+    {
+        OAuthFunctions.jwt("RS256")
+                      .batch(1)
+                      .corrupt("unknown");
+    }
+
+    @Test(expected = GeneralSecurityException.class)
+    public void shouldFailSignBatch()
+    {
+        OAuthFunctions.jwt(RFC7515_RS256, "RS256", "wrong alg test")
+                      .batch(1)
+                      .subject("subject-%d")
+                      .sign();
+    }
+
+    @Test(expected = GeneralSecurityException.class)
+    public void shouldFailSignBatchOnExecutor()
+    {
+        OAuthFunctions.jwt(RFC7515_RS256, "RS256", "wrong alg test")
+                      .batch(1)
+                      .executor(Runnable::run)
+                      .sign();
+    }
+
+    @Test
+    public void shouldSignJWTwithRegisteredKeys() throws Exception
+    {
+        OAuthJwtKeyRegistry registry = new OAuthJwtKeyRegistry()
+                .register("ES512", "ES512", RFC7515_ES512)
+                .load(getClass().getResource("/keys/signingKeys.jwk"));
+
+        assertSignedWith(registry, "RS384", Signature.getInstance("SHA384withRSA"));
+        assertSignedWith(registry, "RS512", Signature.getInstance("SHA512withRSA"));
+        assertSignedWith(registry, "ES384", Signature.getInstance("SHA384withECDSAinP1363Format"));
+        assertSignedWith(registry, "ES512", Signature.getInstance("SHA512withECDSAinP1363Format"));
+
+        Signature pss = Signature.getInstance("RSASSA-PSS");
+        pss.setParameter(new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1));
+        assertSignedWith(registry, "PS256", pss);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailUnknownKid()
+    {
+        OAuthFunctions.jwt("unknown");
+    }
+
     @Test(expected = GeneralSecurityException.class)
     public void shouldFailSign() throws GeneralSecurityException
     {
@@ -80,7 +509,7 @@ public final class OAuthFunctionsTest
                       .sign();
     }
 
-    @Test(expected = AssertionError.class)
+    @Test(expected = IllegalArgumentException.class)
     public void shouldFailBadRIntegrity()
     {
         OAuthFunctions.decodeIntegrity(new byte[]{
@@ -96,7 +525,7 @@ public final class OAuthFunctionsTest
         });
     }
 
-    @Test(expected = AssertionError.class)
+    @Test(expected = IllegalArgumentException.class)
     public void shouldFailBadSIntegrity()
     {
         OAuthFunctions.decodeIntegrity(new byte[]{
@@ -111,6 +540,35 @@ public final class OAuthFunctionsTest
         });
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailMalformedIntegritySequence()
+    {
+        OAuthFunctions.decodeIntegrity(new byte[]{
+            49, 6, 2, 1, 1, 2, 1, 1
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailTruncatedIntegrity()
+    {
+        OAuthFunctions.decodeIntegrity(new byte[]{
+            48, 6, 2, 1, 1, 2, 2, 1
+        });
+    }
+
+    @Test
+    public void shouldDecodeShortIntegers()
+    {
+        byte[] rawIntegrity = OAuthFunctions.decodeIntegrity(new byte[]{
+            48, 6, 2, 1, 1, 2, 1, 2
+        });
+
+        byte[] expected = new byte[64];
+        expected[31] = 1;
+        expected[63] = 2;
+        assertArrayEquals(expected, rawIntegrity);
+    }
+
     @Test
     public void shouldSupplyMapper()
     {
@@ -129,5 +587,520 @@ public final class OAuthFunctionsTest
 
         assertEquals("test issuer", resolveEx.issuer().asString());
         assertEquals("testAudience", resolveEx.audience().asString());
+        assertEquals(0, resolveEx.issuers().fieldCount());
+        assertEquals(0, resolveEx.audiences().fieldCount());
+    }
+
+    @Test
+    public void shouldGenerateResolveExtensionWithOriginalLayoutFirst()
+    {
+        byte[] build = OAuthFunctions.resolveEx()
+                                     .issuer("test issuer")
+                                     .audience("testAudience")
+                                     .build();
+
+        ByteBuffer original = ByteBuffer.allocate(25)
+                                        .put((byte) 11).put("test issuer".getBytes(UTF_8))
+                                        .put((byte) 12).put("testAudience".getBytes(UTF_8));
+
+        assertArrayEquals(original.array(), Arrays.copyOf(build, original.capacity()));
+    }
+
+    @Test
+    public void shouldGenerateResolveExtensionWithoutIssuer()
+    {
+        byte[] build = OAuthFunctions.resolveEx()
+                                     .issuer(null)
+                                     .audience("testAudience")
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        OAuthResolveExFW resolveEx = new OAuthResolveExFW().wrap(buffer, 0, buffer.capacity());
+
+        assertNull(resolveEx.issuer().asString());
+        assertEquals("testAudience", resolveEx.audience().asString());
+        assertEquals(0, resolveEx.issuers().fieldCount());
+    }
+
+    @Test
+    public void shouldGenerateResolveExtensionWithMultipleIssuersAndAudiences()
+    {
+        byte[] build = OAuthFunctions.resolveEx()
+                                     .issuer("test issuer")
+                                     .issuer("migrated issuer")
+                                     .audience("testAudience")
+                                     .audience("migratedAudience")
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        OAuthResolveExFW resolveEx = new OAuthResolveExFW().wrap(buffer, 0, buffer.capacity());
+
+        List<String> issuers = new ArrayList<>();
+        resolveEx.issuers().forEach(i -> issuers.add(i.asString()));
+        List<String> audiences = new ArrayList<>();
+        resolveEx.audiences().forEach(a -> audiences.add(a.asString()));
+
+        assertEquals(build.length, resolveEx.sizeof());
+        assertEquals("test issuer", resolveEx.issuer().asString());
+        assertEquals("testAudience", resolveEx.audience().asString());
+        assertEquals(Arrays.asList("migrated issuer"), issuers);
+        assertEquals(Arrays.asList("migratedAudience"), audiences);
+    }
+
+    @Test
+    public void shouldGenerateResolveExtensionWithClaimProjections()
+    {
+        byte[] build = OAuthFunctions.resolveEx()
+                                     .project("sub", "x-oauth-sub")
+                                     .project("scope", "x-oauth-scope")
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        OAuthResolveExFW resolveEx = new OAuthResolveExFW().wrap(buffer, 0, buffer.capacity());
+
+        List<String> projections = new ArrayList<>();
+        resolveEx.projections().forEach(p -> projections.add(String.format("%s %s",
+                p.claim().asString(),
+                p.header().asString())));
+
+        assertEquals(build.length, resolveEx.sizeof());
+        assertEquals(Arrays.asList("sub x-oauth-sub", "scope x-oauth-scope"), projections);
+        assertEquals(0, resolveEx.options());
+    }
+
+    @Test
+    public void shouldGenerateResolveExtensionWithVerifiedIdentity()
+    {
+        byte[] build = OAuthFunctions.resolveEx()
+                                     .verifiedIdentity()
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        OAuthResolveExFW resolveEx = new OAuthResolveExFW().wrap(buffer, 0, buffer.capacity());
+
+        assertEquals(build.length, resolveEx.sizeof());
+        assertEquals(0x01, resolveEx.options());
+    }
+
+    @Test
+    public void shouldGenerateExtendedAuthorization()
+    {
+        assertEquals(0x000100_0000000005L, OAuthFunctions.authorization()
+                                                         .realm(255)
+                                                         .role(0)
+                                                         .role(2)
+                                                         .build());
+        assertEquals(0xffffff_8000000000L, OAuthFunctions.authorization()
+                                                         .realm(0xfffffe)
+                                                         .role(39)
+                                                         .build());
+    }
+
+    @Test
+    public void shouldNotGenerateExternalAuthorizationForFirstRealm()
+    {
+        long authorization = OAuthFunctions.authorization().realm(0).build();
+
+        assertNotEquals(0L, authorization);
+        assertEquals(0x000001_0000000000L, authorization);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectExtendedAuthorizationRealmOutOfRange()
+    {
+        OAuthFunctions.authorization().realm((1 << 24) - 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectExtendedAuthorizationRoleOutOfRange()
+    {
+        OAuthFunctions.authorization().role(40);
+    }
+
+    @Test
+    public void shouldGenerateUpdateRolesExtension()
+    {
+        byte[] build = OAuthFunctions.updateRolesEx()
+                                     .add("scope4")
+                                     .add("scope5")
+                                     .remove("scope2")
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        OAuthUpdateRolesExFW updateRolesEx = new OAuthUpdateRolesExFW().wrap(buffer, 0, buffer.capacity());
+
+        List<String> added = new ArrayList<>();
+        updateRolesEx.added().forEach(r -> added.add(r.asString()));
+        List<String> removed = new ArrayList<>();
+        updateRolesEx.removed().forEach(r -> removed.add(r.asString()));
+
+        assertEquals(Arrays.asList("scope4", "scope5"), added);
+        assertEquals(Arrays.asList("scope2"), removed);
+    }
+
+    @Test
+    public void shouldGenerateRevokeExtension()
+    {
+        byte[] build = OAuthFunctions.revokeEx()
+                                     .expires(4102444800000L)
+                                     .jti("compromised")
+                                     .jtis("token-%d", 2)
+                                     .subject("test subject")
+                                     .subjects("subject-%d", 2)
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        OAuthRevokeExFW revokeEx = new OAuthRevokeExFW().wrap(buffer, 0, buffer.capacity());
+
+        List<String> jtis = new ArrayList<>();
+        revokeEx.jtis().forEach(j -> jtis.add(j.asString()));
+        List<String> subjects = new ArrayList<>();
+        revokeEx.subjects().forEach(s -> subjects.add(s.asString()));
+
+        assertEquals(build.length, revokeEx.sizeof());
+        assertEquals(4102444800000L, revokeEx.expires());
+        assertEquals(Arrays.asList("compromised", "token-0", "token-1"), jtis);
+        assertEquals(Arrays.asList("test subject", "subject-0", "subject-1"), subjects);
+    }
+
+    @Test
+    public void shouldGenerateResolveBatch()
+    {
+        byte[] build = OAuthFunctions.resolveBatch()
+                                     .entry("RS256")
+                                     .role("scope1")
+                                     .role("scope2")
+                                     .issuer("test issuer")
+                                     .audience("testAudience")
+                                     .entry("ES256")
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        Array32FW<OAuthResolveBatchEntryFW> entries =
+                new Array32FW<>(new OAuthResolveBatchEntryFW()).wrap(buffer, 0, buffer.capacity());
+
+        List<String> resolved = new ArrayList<>();
+        entries.forEach(e ->
+        {
+            List<String> roles = new ArrayList<>();
+            e.roles().forEach(r -> roles.add(r.asString()));
+            resolved.add(String.format("%s %s %s %s", e.realm().asString(), roles, e.issuer().asString(),
+                    e.audience().asString()));
+        });
+
+        assertEquals(build.length, entries.sizeof() + 1);
+        assertEquals(0x00, build[entries.sizeof()]);
+        assertEquals(Arrays.asList("RS256 [scope1, scope2] test issuer testAudience", "ES256 [] null null"), resolved);
+    }
+
+    @Test
+    public void shouldGenerateExtendedResolveBatch()
+    {
+        byte[] build = OAuthFunctions.resolveBatch()
+                                     .entries("rotating-%03d", 256)
+                                     .extended()
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        Array32FW<OAuthResolveBatchEntryFW> entries =
+                new Array32FW<>(new OAuthResolveBatchEntryFW()).wrap(buffer, 0, buffer.capacity());
+
+        List<String> realms = new ArrayList<>();
+        entries.forEach(e -> realms.add(e.realm().asString()));
+
+        assertEquals(build.length, entries.sizeof() + 1);
+        assertEquals(0x01, build[entries.sizeof()]);
+        assertEquals(256, realms.size());
+        assertEquals("rotating-000", realms.get(0));
+        assertEquals("rotating-255", realms.get(255));
+    }
+
+    @Test
+    public void shouldGenerateResolvedBatch()
+    {
+        byte[] build = OAuthFunctions.resolvedBatch()
+                                     .authorization(0x0001_000000000000L)
+                                     .realms(254, 2)
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        Array32FW<OAuthAuthorizationFW> authorizations =
+                new Array32FW<>(new OAuthAuthorizationFW()).wrap(buffer, 0, buffer.capacity());
+
+        List<Long> resolved = new ArrayList<>();
+        authorizations.forEach(a -> resolved.add(a.authorization()));
+
+        assertEquals(build.length, authorizations.sizeof());
+        assertEquals(Arrays.asList(0x0001_000000000000L, 0x0000ff_0000000000L, 0x000100_0000000000L), resolved);
+    }
+
+    @Test
+    public void shouldGenerateBeginExtension()
+    {
+        byte[] build = OAuthFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .expires(4102444800000L)
+                                     .affinity(1L)
+                                     .authorization(0x0001_000000000007L)
+                                     .subject("test subject")
+                                     .extension("extension".getBytes(UTF_8))
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        OAuthBeginExFW beginEx = new OAuthBeginExFW().wrap(buffer, 0, buffer.capacity());
+
+        assertEquals(build.length, beginEx.sizeof());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(4102444800000L, beginEx.expires());
+        assertEquals(1L, beginEx.affinity());
+        assertEquals(0x0001_000000000007L, beginEx.authorization());
+        assertEquals("test subject", beginEx.subject().asString());
+        assertEquals("extension", beginEx.extension().buffer()
+                .getStringWithoutLengthUtf8(beginEx.extension().offset(), beginEx.extension().sizeof()));
+    }
+
+    @Test
+    public void shouldGenerateBeginExtensionWithoutSubjectOrExtension()
+    {
+        byte[] build = OAuthFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .build();
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        OAuthBeginExFW beginEx = new OAuthBeginExFW().wrap(buffer, 0, buffer.capacity());
+
+        assertEquals(build.length, beginEx.sizeof());
+        assertNull(beginEx.subject().asString());
+        assertEquals(0, beginEx.extension().sizeof());
+    }
+
+    @Test
+    public void shouldMatchBeginExtension() throws Exception
+    {
+        BytesMatcher matcher = OAuthFunctions.matchBeginEx()
+                                             .typeId(0x01)
+                                             .expires(4102444800000L)
+                                             .affinity(1L)
+                                             .authorization(0x0001_000000000007L)
+                                             .subject("test subject")
+                                             .extension("extension".getBytes(UTF_8))
+                                             .build();
+        byte[] build = OAuthFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .expires(4102444800000L)
+                                     .affinity(1L)
+                                     .authorization(0x0001_000000000007L)
+                                     .subject("test subject")
+                                     .extension("extension".getBytes(UTF_8))
+                                     .build();
+        ByteBuffer byteBuf = ByteBuffer.allocate(build.length + 16);
+        byteBuf.put(build).flip();
+
+        assertNotNull(matcher.match(byteBuf));
+        assertFalse(byteBuf.hasRemaining());
+    }
+
+    @Test
+    public void shouldMatchBeginExtensionWithTypeIdOnly() throws Exception
+    {
+        BytesMatcher matcher = OAuthFunctions.matchBeginEx()
+                                             .typeId(0x01)
+                                             .build();
+        byte[] build = OAuthFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .expires(4102444800000L)
+                                     .subject("test subject")
+                                     .build();
+
+        assertNotNull(matcher.match(ByteBuffer.wrap(build)));
+    }
+
+    @Test
+    public void shouldNotMatchEmptyBeginExtension() throws Exception
+    {
+        BytesMatcher matcher = OAuthFunctions.matchBeginEx()
+                                             .typeId(0x01)
+                                             .build();
+
+        assertNull(matcher.match(ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    public void shouldNotMatchBeginExtensionWithoutTypeId() throws Exception
+    {
+        BytesMatcher matcher = OAuthFunctions.matchBeginEx()
+                                             .subject("test subject")
+                                             .build();
+
+        assertNull(matcher.match(ByteBuffer.wrap(OAuthFunctions.beginEx().build())));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldFailToMatchBeginExtensionWithDifferentSubject() throws Exception
+    {
+        BytesMatcher matcher = OAuthFunctions.matchBeginEx()
+                                             .typeId(0x01)
+                                             .subject("test subject1")
+                                             .build();
+        byte[] build = OAuthFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .subject("test subject2")
+                                     .build();
+
+        matcher.match(ByteBuffer.wrap(build));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldFailToMatchBeginExtensionWithDifferentExtension() throws Exception
+    {
+        BytesMatcher matcher = OAuthFunctions.matchBeginEx()
+                                             .typeId(0x01)
+                                             .extension("extension1".getBytes(UTF_8))
+                                             .build();
+        byte[] build = OAuthFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .extension("extension2".getBytes(UTF_8))
+                                     .build();
+
+        matcher.match(ByteBuffer.wrap(build));
+    }
+
+    @Test
+    public void shouldBuildQueryWithManyParams()
+    {
+        String query = OAuthFunctions.query()
+                                     .params(2)
+                                     .param("access_token", "token")
+                                     .params(1)
+                                     .build();
+
+        assertEquals("?p0=v0&p1=v1&access_token=token&p2=v2", query);
+    }
+
+    @Test
+    public void shouldBuildCookies()
+    {
+        String cookies = OAuthFunctions.cookies()
+                                       .params(1)
+                                       .param("access_token", "token")
+                                       .build();
+
+        assertEquals("p0=v0; access_token=token", cookies);
+    }
+
+    @Test
+    public void shouldBuildPaddedQuery()
+    {
+        String query = OAuthFunctions.query()
+                                     .param("access_token", "token")
+                                     .paddedTo(8000)
+                                     .build();
+
+        assertEquals(8000, query.length());
+        assertTrue(query.matches("\\?access_token=token&padding=x+"));
+    }
+
+    @Test
+    public void shouldBuildPaddedCookies()
+    {
+        String cookies = OAuthFunctions.cookies()
+                                       .paddedTo(16)
+                                       .build();
+
+        assertEquals("padding=xxxxxxxx", cookies);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailPadQueryBelowLength()
+    {
+        OAuthFunctions.query()
+                      .param("access_token", "token")
+                      .paddedTo(16);
+    }
+
+    private static void shouldSignJWTConcurrently(
+        String kind,
+        PublicKey publicKey,
+        String algorithm) throws Exception
+    {
+        final int threads = 8;
+        final int tokensPerThread = 32;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++)
+            {
+                final String prefix = String.format("%s-%d-", kind, t);
+                tasks.add(() ->
+                {
+                    for (int i = 0; i < tokensPerThread; i++)
+                    {
+                        String jti = prefix + i;
+                        String token = OAuthFunctions.jwt(kind)
+                                                     .claim("jti", jti)
+                                                     .sign();
+                        String payload = assertVerified(token, publicKey, algorithm);
+                        assertEquals(String.format("{\"jti\":\"%s\"}", jti), payload);
+                    }
+                    return null;
+                });
+            }
+
+            for (Future<Void> result : executor.invokeAll(tasks))
+            {
+                result.get();
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertSignedWith(
+        OAuthJwtKeyRegistry registry,
+        String kid,
+        Signature signature) throws GeneralSecurityException
+    {
+        String token = OAuthFunctions.jwt(kid)
+                                     .claim("sub", "test subject")
+                                     .sign();
+
+        String header = token.substring(0, token.indexOf('.'));
+        assertEquals(String.format("{\"kid\":\"%s\",\"alg\":\"%s\"}", kid, kid),
+                new String(Base64.getUrlDecoder().decode(header), UTF_8));
+
+        int signatureAt = token.lastIndexOf('.');
+        signature.initVerify(registry.lookup(kid).keyPair().getPublic());
+        signature.update(token.substring(0, signatureAt).getBytes(US_ASCII));
+        assertTrue(signature.verify(Base64.getUrlDecoder().decode(token.substring(signatureAt + 1))));
+    }
+
+    private static String signCached(
+        OAuthFunctions.JwtTokenCache cache,
+        String subject) throws Exception
+    {
+        return OAuthFunctions.jwt("ES256")
+                             .claim("sub", subject)
+                             .cached(cache)
+                             .sign();
+    }
+
+    private static String assertVerified(
+        String token,
+        PublicKey publicKey,
+        String algorithm) throws GeneralSecurityException
+    {
+        int signatureAt = token.lastIndexOf('.');
+        String securedInput = token.substring(0, signatureAt);
+        String payload64 = securedInput.substring(securedInput.indexOf('.') + 1);
+
+        assertTrue(verify(token, publicKey, algorithm));
+
+        return new String(Base64.getUrlDecoder().decode(payload64), UTF_8);
+    }
+
+    private static boolean verify(
+        String token,
+        PublicKey publicKey,
+        String algorithm) throws GeneralSecurityException
+    {
+        int signatureAt = token.lastIndexOf('.');
+
+        Signature signature = Signature.getInstance(algorithm);
+        signature.initVerify(publicKey);
+        signature.update(token.substring(0, signatureAt).getBytes(US_ASCII));
+        return signature.verify(Base64.getUrlDecoder().decode(token.substring(signatureAt + 1)));
     }
 }
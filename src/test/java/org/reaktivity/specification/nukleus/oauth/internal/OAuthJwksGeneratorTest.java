@@ -0,0 +1,122 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.specification.nukleus.oauth.internal;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Signature;
+
+import org.junit.Test;
+import org.reaktivity.specification.nukleus.oauth.internal.OAuthJwtKeyRegistry.OAuthJwtKey;
+
+public final class OAuthJwksGeneratorTest
+{
+    @Test
+    public void shouldGenerateSameKeysForSameSeed() throws Exception
+    {
+        StringBuilder publicKeys = new StringBuilder();
+        StringBuilder privateKeys = new StringBuilder();
+        new OAuthJwksGenerator(42L).generate(3, publicKeys, privateKeys);
+
+        StringBuilder samePublicKeys = new StringBuilder();
+        StringBuilder samePrivateKeys = new StringBuilder();
+        new OAuthJwksGenerator(42L).generate(3, samePublicKeys, samePrivateKeys);
+
+        StringBuilder otherPublicKeys = new StringBuilder();
+        new OAuthJwksGenerator(43L).generate(3, otherPublicKeys, new StringBuilder());
+
+        assertEquals(publicKeys.toString(), samePublicKeys.toString());
+        assertEquals(privateKeys.toString(), samePrivateKeys.toString());
+        assertNotEquals(publicKeys.toString(), otherPublicKeys.toString());
+    }
+
+    @Test
+    public void shouldGenerateSigningKeys() throws Exception
+    {
+        StringBuilder publicKeys = new StringBuilder();
+        StringBuilder privateKeys = new StringBuilder();
+        new OAuthJwksGenerator(42L).generate(3, publicKeys, privateKeys);
+
+        OAuthJwtKeyRegistry registry = new OAuthJwtKeyRegistry().load(privateKeys.toString());
+
+        assertEquals(0, new OAuthJwtKeyRegistry().load(publicKeys.toString()).size());
+        assertEquals(3, registry.size());
+        assertSigns(registry.lookup("rotating-000"), "RS256", "SHA256withRSA");
+        assertSigns(registry.lookup("rotating-001"), "ES256", "SHA256withECDSA");
+        assertSigns(registry.lookup("rotating-002"), "ES384", "SHA384withECDSA");
+    }
+
+    @Test
+    public void shouldGenerateKeyFiles() throws Exception
+    {
+        Path publicKeys = Files.createTempFile("keys", ".jwk");
+        Path privateKeys = Files.createTempFile("signingKeys", ".jwk");
+        try
+        {
+            OAuthJwksGenerator.main(new String[] { "2", "42", publicKeys.toString(), privateKeys.toString() });
+
+            assertTrue(new String(Files.readAllBytes(publicKeys), UTF_8).contains("\"kid\":\"rotating-001\""));
+            assertEquals(2, new OAuthJwtKeyRegistry().load(privateKeys).size());
+        }
+        finally
+        {
+            Files.delete(publicKeys);
+            Files.delete(privateKeys);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingArguments() throws Exception
+    {
+        OAuthJwksGenerator.main(new String[] { "2", "42" });
+    }
+
+    @Test
+    public void shouldLoadRotatingSigningKeys() throws Exception
+    {
+        OAuthJwtKeyRegistry registry = new OAuthJwtKeyRegistry()
+                .load(getClass().getResource("/keys/rotatingSigningKeys.jwk"));
+
+        assertEquals(256, registry.size());
+        assertSigns(registry.lookup("rotating-255"), "ES256", "SHA256withECDSA");
+    }
+
+    private static void assertSigns(
+        OAuthJwtKey key,
+        String alg,
+        String algorithm) throws Exception
+    {
+        byte[] data = "header.payload".getBytes(US_ASCII);
+
+        Signature signer = Signature.getInstance(algorithm);
+        signer.initSign(key.keyPair().getPrivate());
+        signer.update(data);
+        byte[] signature = signer.sign();
+
+        Signature verifier = Signature.getInstance(algorithm);
+        verifier.initVerify(key.keyPair().getPublic());
+        verifier.update(data);
+
+        assertEquals(alg, key.alg());
+        assertTrue(verifier.verify(signature));
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.specification.nukleus.oauth.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+import org.reaktivity.specification.nukleus.oauth.internal.OAuthJwtKeyRegistry.OAuthJwtKey;
+
+public final class OAuthJwtKeyRegistryTest
+{
+    @Test
+    public void shouldLoadSigningKeys() throws Exception
+    {
+        OAuthJwtKeyRegistry registry = new OAuthJwtKeyRegistry()
+                .load(getClass().getResource("/keys/signingKeys.jwk"));
+
+        assertEquals(4, registry.size());
+
+        String published = readResource("/keys/keys.jwk");
+        for (String kid : new String[] { "RS384", "RS512", "PS256", "ES384" })
+        {
+            OAuthJwtKey key = registry.lookup(kid);
+            assertEquals(kid, key.kid());
+            assertEquals(kid, key.alg());
+            assertPublished(published, key);
+        }
+    }
+
+    @Test
+    public void shouldLoadKeysFromFile() throws Exception
+    {
+        Path keys = Files.createTempFile("keys", ".jwk");
+        try
+        {
+            String jwks = readResource("/keys/signingKeys.jwk").replace("\"kid\":\"ES384\"", "\"kid\":\"file\"");
+            Files.write(keys, jwks.getBytes(UTF_8));
+
+            OAuthJwtKeyRegistry registry = new OAuthJwtKeyRegistry().load(keys);
+
+            assertEquals("ES384", registry.lookup("file").alg());
+        }
+        finally
+        {
+            Files.delete(keys);
+        }
+    }
+
+    @Test
+    public void shouldPublishRFC7515ES512Key() throws Exception
+    {
+        OAuthJwtKeyRegistry registry = new OAuthJwtKeyRegistry()
+                .register("ES512", "ES512", OAuthJwtKeys.RFC7515_ES512);
+
+        assertPublished(readResource("/keys/keys.jwk"), registry.lookup("ES512"));
+    }
+
+    @Test
+    public void shouldRegisterKeyPair() throws Exception
+    {
+        KeyPair keyPair = OAuthJwtKeys.RFC7515_RS256;
+        OAuthJwtKeyRegistry registry = new OAuthJwtKeyRegistry()
+                .register("kid", "RS256", keyPair);
+
+        assertSame(keyPair, registry.lookup("kid").keyPair());
+        assertEquals("SHA256withRSA", registry.lookup("kid").algorithm());
+    }
+
+    @Test
+    public void shouldIgnorePublicKeys() throws Exception
+    {
+        OAuthJwtKeyRegistry registry = new OAuthJwtKeyRegistry()
+                .load(getClass().getResource("/keys/keys.jwk"));
+
+        assertEquals(0, registry.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownKid()
+    {
+        new OAuthJwtKeyRegistry().lookup("unknown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsupportedAlg()
+    {
+        new OAuthJwtKeyRegistry().register("HS256", "HS256", OAuthJwtKeys.RFC7515_RS256);
+    }
+
+    @Test(expected = NoSuchAlgorithmException.class)
+    public void shouldRejectUnknownKeyType() throws Exception
+    {
+        new OAuthJwtKeyRegistry().load("{\"keys\":[{\"kid\":\"HS256\",\"kty\":\"oct\",\"d\":\"AQAB\",\"alg\":\"HS256\"}]}");
+    }
+
+    private static void assertPublished(
+        String published,
+        OAuthJwtKey key)
+    {
+        Matcher jwk = Pattern.compile(String.format("\\{[^{}]*\"kid\":\"%s\"[^{}]*\\}", key.kid())).matcher(published);
+        assertTrue(jwk.find());
+
+        if (key.keyPair().getPublic() instanceof RSAPublicKey)
+        {
+            RSAPublicKey publicKey = (RSAPublicKey) key.keyPair().getPublic();
+            assertEquals(publicKey.getModulus(), param(jwk.group(), "n"));
+            assertEquals(publicKey.getPublicExponent(), param(jwk.group(), "e"));
+        }
+        else
+        {
+            ECPublicKey publicKey = (ECPublicKey) key.keyPair().getPublic();
+            assertEquals(publicKey.getW().getAffineX(), param(jwk.group(), "x"));
+            assertEquals(publicKey.getW().getAffineY(), param(jwk.group(), "y"));
+        }
+    }
+
+    private static BigInteger param(
+        String jwk,
+        String name)
+    {
+        Matcher param = Pattern.compile(String.format("\"%s\":\"([^\"]*)\"", name)).matcher(jwk);
+        assertTrue(param.find());
+        return new BigInteger(1, Base64.getUrlDecoder().decode(param.group(1)));
+    }
+
+    private String readResource(
+        String name) throws Exception
+    {
+        try (InputStream input = getClass().getResourceAsStream(name))
+        {
+            return new String(input.readAllBytes(), UTF_8);
+        }
+    }
+}
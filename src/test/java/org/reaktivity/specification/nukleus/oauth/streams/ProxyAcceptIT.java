@@ -30,6 +30,8 @@ import org.reaktivity.specification.nukleus.NukleusRule;
 public class ProxyAcceptIT
 {
     private final K3poRule k3po = new K3poRule()
+            .addScriptRoot("revoke", "org/reaktivity/specification/nukleus/oauth/control/revoke")
+            .addScriptRoot("route", "org/reaktivity/specification/nukleus/oauth/control/route/proxy")
             .addScriptRoot("streams", "org/reaktivity/specification/nukleus/oauth/streams/proxy");
 
     private final TestRule timeout = new DisableOnDebug(new Timeout(5, SECONDS));
@@ -76,6 +78,62 @@ public class ProxyAcceptIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/challenge.response.reauthorizes.many.inflight.requests/accept/client",
+        "${streams}/challenge.response.reauthorizes.many.inflight.requests/accept/server"
+        })
+    public void shouldReauthorizeManyInflightRequestsWithChallengeResponse() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.awaitBarrier("REAUTHORIZED");
+        k3po.notifyBarrier("TOKEN_EXPIRATION");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/challenge.response.with.different.subject.does.not.reauthorize.many.inflight.requests/accept/client",
+        "${streams}/challenge.response.with.different.subject.does.not.reauthorize.many.inflight.requests/accept/server"
+        })
+    public void shouldNotReauthorizeManyInflightRequestsWithChallengeResponseForDifferentSubject() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.awaitBarrier("REAUTHORIZED");
+        k3po.notifyBarrier("TOKEN_EXPIRATION");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/challenge.response.with.different.affinity.does.not.reauthorize.many.inflight.requests/accept/client",
+        "${streams}/challenge.response.with.different.affinity.does.not.reauthorize.many.inflight.requests/accept/server"
+        })
+    public void shouldNotReauthorizeManyInflightRequestsWithChallengeResponseForDifferentAffinity() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.awaitBarrier("REAUTHORIZED");
+        k3po.notifyBarrier("TOKEN_EXPIRATION");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/challenge.response.with.fewer.roles.does.not.reauthorize.many.inflight.requests/accept/client",
+        "${streams}/challenge.response.with.fewer.roles.does.not.reauthorize.many.inflight.requests/accept/server"
+        })
+    public void shouldNotReauthorizeManyInflightRequestsWithChallengeResponseForFewerRoles() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.awaitBarrier("REAUTHORIZED");
+        k3po.notifyBarrier("TOKEN_EXPIRATION");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/authorize.query.with.signed.jwt.es256/accept/client",
@@ -88,6 +146,42 @@ public class ProxyAcceptIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/authorize.query.with.many.params.with.signed.jwt.es256/accept/client",
+        "${streams}/authorize.query.with.many.params.with.signed.jwt.es256/accept/server"
+        })
+    public void shouldAuthorizeQueryWithManyParamsWithValidJwtEC256() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/authorize.cookie.with.signed.jwt.es256/accept/client",
+        "${streams}/authorize.cookie.with.signed.jwt.es256/accept/server"
+        })
+    public void shouldAuthorizeCookieWithValidJwtEC256() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/authorize.large.cookie.with.signed.jwt.es256/accept/client",
+        "${streams}/authorize.large.cookie.with.signed.jwt.es256/accept/server"
+        })
+    public void shouldAuthorizeLargeCookieWithValidJwtEC256() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/authorize.then.abort.expiring.request/accept/client",
@@ -208,6 +302,54 @@ public class ProxyAcceptIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/large.request.and.response.with.signed.jwt.es256.forwarded/accept/client",
+        "${streams}/large.request.and.response.with.signed.jwt.es256.forwarded/accept/server"
+        })
+    public void shouldForwardLargeRequestAndResponse() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/large.request.and.response.with.small.windows.and.padding.with.signed.jwt.es256.forwarded/accept/client",
+        "${streams}/large.request.and.response.with.small.windows.and.padding.with.signed.jwt.es256.forwarded/accept/server"
+        })
+    public void shouldForwardLargeRequestAndResponseWithSmallWindowsAndPadding() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/lockstep.request.and.response.with.signed.jwt.es256.forwarded/accept/client",
+        "${streams}/lockstep.request.and.response.with.signed.jwt.es256.forwarded/accept/server"
+        })
+    public void shouldForwardLockstepRequestAndResponse() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/lockstep.request.and.response.with.small.windows.and.padding.with.signed.jwt.es256.forwarded/accept/client",
+        "${streams}/lockstep.request.and.response.with.small.windows.and.padding.with.signed.jwt.es256.forwarded/accept/server"
+        })
+    public void shouldForwardLockstepRequestAndResponseWithSmallWindowsAndPadding() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/request.with.expired.jwt.forwarded/accept/client",
@@ -232,6 +374,18 @@ public class ProxyAcceptIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/requests.with.same.expired.jwt.no.route/accept/client",
+        "${streams}/requests.with.same.expired.jwt.no.route/accept/server"
+        })
+    public void shouldRejectRequestsWithSameExpiredJwt() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/request.with.invalid.jwt.forwarded/accept/client",
@@ -256,6 +410,56 @@ public class ProxyAcceptIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/requests.with.same.invalid.jwt.no.route/accept/client",
+        "${streams}/requests.with.same.invalid.jwt.no.route/accept/server"
+        })
+    public void shouldRejectRequestsWithSameInvalidJwt() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/requests.with.corrupted.jwts.no.route/accept/client",
+        "${streams}/requests.with.corrupted.jwts.no.route/accept/server"
+        })
+    public void shouldRejectRequestsWithCorruptedJwts() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/requests.with.revoked.and.unrevoked.jwts/accept/client",
+        "${streams}/requests.with.revoked.and.unrevoked.jwts/accept/server"
+        })
+    public void shouldRejectRequestsWithRevokedJwts() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${revoke}/inflight.jti/nukleus",
+        "${revoke}/inflight.jti/controller",
+        "${streams}/request.with.revoked.jwt.inflight.aborted/accept/client",
+        "${streams}/request.with.revoked.jwt.inflight.aborted/accept/server"
+        })
+    public void shouldAbortInflightRequestWithRevokedJwt() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/request.with.signed.jwt.es256.forwarded/accept/client",
@@ -268,6 +472,54 @@ public class ProxyAcceptIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${route}/resolve.one.realm.with.set.roles.and.verified.identity.then.route.proxy/nukleus",
+        "${route}/resolve.one.realm.with.set.roles.and.verified.identity.then.route.proxy/controller",
+        "${streams}/request.with.verified.identity.with.signed.jwt.rs256.forwarded/accept/client",
+        "${streams}/request.with.verified.identity.with.signed.jwt.rs256.forwarded/accept/server"
+        })
+    public void shouldForwardRequestWithVerifiedIdentity() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/request.with.signed.jwt.from.rotating.key.set.forwarded/accept/client",
+        "${streams}/request.with.signed.jwt.from.rotating.key.set.forwarded/accept/server"
+        })
+    public void shouldForwardRequestWithValidJwtFromRotatingKeySet() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/request.with.signed.jwt.from.extended.realm.forwarded/accept/client",
+        "${streams}/request.with.signed.jwt.from.extended.realm.forwarded/accept/server"
+        })
+    public void shouldForwardRequestWithValidJwtFromExtendedRealm() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/concurrent.requests.with.signed.jwt.rs256.forwarded/accept/client",
+        "${streams}/concurrent.requests.with.signed.jwt.rs256.forwarded/accept/server"
+        })
+    public void shouldForwardConcurrentRequestsWithValidJwts() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/request.with.signed.jwt.rs256.forwarded/accept/client",
@@ -280,6 +532,68 @@ public class ProxyAcceptIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/request.with.scopes.multiple.issuers.and.audiences.with.signed.jwt.rs256.forwarded/accept/client",
+        "${streams}/request.with.scopes.multiple.issuers.and.audiences.with.signed.jwt.rs256.forwarded/accept/server"
+        })
+    public void shouldForwardRequestsWithValidJwtsFromMultipleIssuers() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY_WITH_MULTIPLE_ISSUERS");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/request.with.scopes.and.projected.claims.with.signed.jwt.rs256.forwarded/accept/client",
+        "${streams}/request.with.scopes.and.projected.claims.with.signed.jwt.rs256.forwarded/accept/server"
+        })
+    public void shouldForwardRequestWithProjectedClaims() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY_WITH_CLAIM_PROJECTIONS");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/requests.with.same.signed.jwt.rs256.forwarded/accept/client",
+        "${streams}/requests.with.same.signed.jwt.rs256.forwarded/accept/server"
+        })
+    public void shouldForwardSequentialRequestsWithSameJwt() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/concurrent.requests.with.same.signed.jwt.rs256.forwarded/accept/client",
+        "${streams}/concurrent.requests.with.same.signed.jwt.rs256.forwarded/accept/server"
+        })
+    public void shouldForwardConcurrentRequestsWithSameJwt() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/requests.with.same.expiring.jwt.forwarded.then.no.route/accept/client",
+        "${streams}/requests.with.same.expiring.jwt.forwarded.then.no.route/accept/server"
+        })
+    public void shouldForwardRequestsWithSameJwtThenRejectWhenExpired() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.awaitBarrier("FORWARDED_REQUEST_4");
+        k3po.notifyBarrier("TOKEN_EXPIRATION");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/request.with.unready.jwt.forwarded/accept/client",
@@ -328,6 +642,18 @@ public class ProxyAcceptIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/requests.with.same.unsigned.jwt.no.route/accept/client",
+        "${streams}/requests.with.same.unsigned.jwt.no.route/accept/server"
+        })
+    public void shouldRejectRequestsWithSameUnsignedJwt() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/request.without.authorization.forwarded/accept/client",
@@ -30,6 +30,8 @@ import org.reaktivity.specification.nukleus.NukleusRule;
 public class ProxyConnectIT
 {
     private final K3poRule k3po = new K3poRule()
+            .addScriptRoot("revoke", "org/reaktivity/specification/nukleus/oauth/control/revoke")
+            .addScriptRoot("route", "org/reaktivity/specification/nukleus/oauth/control/route/proxy")
             .addScriptRoot("streams", "org/reaktivity/specification/nukleus/oauth/streams/proxy");
 
     private final TestRule timeout = new DisableOnDebug(new Timeout(5, SECONDS));
@@ -64,6 +66,42 @@ public class ProxyConnectIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/authorize.query.with.many.params.with.signed.jwt.es256/connect/client",
+        "${streams}/authorize.query.with.many.params.with.signed.jwt.es256/connect/server"
+        })
+    public void shouldAuthorizeQueryWithManyParamsWithValidJwtEC256() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/authorize.cookie.with.signed.jwt.es256/connect/client",
+        "${streams}/authorize.cookie.with.signed.jwt.es256/connect/server"
+        })
+    public void shouldAuthorizeCookieWithValidJwtEC256() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/authorize.large.cookie.with.signed.jwt.es256/connect/client",
+        "${streams}/authorize.large.cookie.with.signed.jwt.es256/connect/server"
+        })
+    public void shouldAuthorizeLargeCookieWithValidJwtEC256() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/authorize.then.abort.expiring.request/connect/client",
@@ -184,6 +222,54 @@ public class ProxyConnectIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/large.request.and.response.with.signed.jwt.es256.forwarded/connect/client",
+        "${streams}/large.request.and.response.with.signed.jwt.es256.forwarded/connect/server"
+        })
+    public void shouldForwardLargeRequestAndResponse() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/large.request.and.response.with.small.windows.and.padding.with.signed.jwt.es256.forwarded/connect/client",
+        "${streams}/large.request.and.response.with.small.windows.and.padding.with.signed.jwt.es256.forwarded/connect/server"
+        })
+    public void shouldForwardLargeRequestAndResponseWithSmallWindowsAndPadding() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/lockstep.request.and.response.with.signed.jwt.es256.forwarded/connect/client",
+        "${streams}/lockstep.request.and.response.with.signed.jwt.es256.forwarded/connect/server"
+        })
+    public void shouldForwardLockstepRequestAndResponse() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/lockstep.request.and.response.with.small.windows.and.padding.with.signed.jwt.es256.forwarded/connect/client",
+        "${streams}/lockstep.request.and.response.with.small.windows.and.padding.with.signed.jwt.es256.forwarded/connect/server"
+        })
+    public void shouldForwardLockstepRequestAndResponseWithSmallWindowsAndPadding() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/request.with.expired.jwt.forwarded/connect/client",
@@ -220,6 +306,54 @@ public class ProxyConnectIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${route}/resolve.one.realm.with.set.roles.and.verified.identity.then.route.proxy/nukleus",
+        "${route}/resolve.one.realm.with.set.roles.and.verified.identity.then.route.proxy/controller",
+        "${streams}/request.with.verified.identity.with.signed.jwt.rs256.forwarded/connect/client",
+        "${streams}/request.with.verified.identity.with.signed.jwt.rs256.forwarded/connect/server"
+        })
+    public void shouldForwardRequestWithVerifiedIdentity() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/request.with.signed.jwt.from.rotating.key.set.forwarded/connect/client",
+        "${streams}/request.with.signed.jwt.from.rotating.key.set.forwarded/connect/server"
+        })
+    public void shouldForwardRequestWithValidJwtFromRotatingKeySet() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/request.with.signed.jwt.from.extended.realm.forwarded/connect/client",
+        "${streams}/request.with.signed.jwt.from.extended.realm.forwarded/connect/server"
+        })
+    public void shouldForwardRequestWithValidJwtFromExtendedRealm() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/concurrent.requests.with.signed.jwt.rs256.forwarded/connect/client",
+        "${streams}/concurrent.requests.with.signed.jwt.rs256.forwarded/connect/server"
+        })
+    public void shouldForwardConcurrentRequestsWithValidJwts() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/request.with.signed.jwt.rs256.forwarded/connect/client",
@@ -232,6 +366,92 @@ public class ProxyConnectIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/request.with.scopes.multiple.issuers.and.audiences.with.signed.jwt.rs256.forwarded/connect/client",
+        "${streams}/request.with.scopes.multiple.issuers.and.audiences.with.signed.jwt.rs256.forwarded/connect/server"
+        })
+    public void shouldForwardRequestsWithValidJwtsFromMultipleIssuers() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY_WITH_MULTIPLE_ISSUERS");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/request.with.scopes.and.projected.claims.with.signed.jwt.rs256.forwarded/connect/client",
+        "${streams}/request.with.scopes.and.projected.claims.with.signed.jwt.rs256.forwarded/connect/server"
+        })
+    public void shouldForwardRequestWithProjectedClaims() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY_WITH_CLAIM_PROJECTIONS");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/requests.with.same.signed.jwt.rs256.forwarded/connect/client",
+        "${streams}/requests.with.same.signed.jwt.rs256.forwarded/connect/server"
+        })
+    public void shouldForwardSequentialRequestsWithSameJwt() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/concurrent.requests.with.same.signed.jwt.rs256.forwarded/connect/client",
+        "${streams}/concurrent.requests.with.same.signed.jwt.rs256.forwarded/connect/server"
+        })
+    public void shouldForwardConcurrentRequestsWithSameJwt() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/requests.with.revoked.and.unrevoked.jwts/connect/client",
+        "${streams}/requests.with.revoked.and.unrevoked.jwts/connect/server"
+        })
+    public void shouldForwardRequestsWithUnrevokedJwts() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${revoke}/inflight.jti/nukleus",
+        "${revoke}/inflight.jti/controller",
+        "${streams}/request.with.revoked.jwt.inflight.aborted/connect/client",
+        "${streams}/request.with.revoked.jwt.inflight.aborted/connect/server"
+        })
+    public void shouldAbortInflightRequestWithRevokedJwt() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/requests.with.same.expiring.jwt.forwarded.then.no.route/connect/client",
+        "${streams}/requests.with.same.expiring.jwt.forwarded.then.no.route/connect/server"
+        })
+    public void shouldForwardRequestsWithSameJwtUntilExpired() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/request.with.unready.jwt.forwarded/connect/client",
@@ -293,6 +513,58 @@ public class ProxyConnectIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${streams}/challenge.response.reauthorizes.many.inflight.requests/connect/client",
+        "${streams}/challenge.response.reauthorizes.many.inflight.requests/connect/server"
+        })
+    public void shouldReauthorizeManyInflightRequestsWithChallengeResponse() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.notifyBarrier("TOKEN_EXPIRATION");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/challenge.response.with.different.subject.does.not.reauthorize.many.inflight.requests/connect/client",
+        "${streams}/challenge.response.with.different.subject.does.not.reauthorize.many.inflight.requests/connect/server"
+        })
+    public void shouldNotReauthorizeManyInflightRequestsWithChallengeResponseForDifferentSubject() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.notifyBarrier("TOKEN_EXPIRATION");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/challenge.response.with.different.affinity.does.not.reauthorize.many.inflight.requests/connect/client",
+        "${streams}/challenge.response.with.different.affinity.does.not.reauthorize.many.inflight.requests/connect/server"
+        })
+    public void shouldNotReauthorizeManyInflightRequestsWithChallengeResponseForDifferentAffinity() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.notifyBarrier("TOKEN_EXPIRATION");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/challenge.response.with.fewer.roles.does.not.reauthorize.many.inflight.requests/connect/client",
+        "${streams}/challenge.response.with.fewer.roles.does.not.reauthorize.many.inflight.requests/connect/server"
+        })
+    public void shouldNotReauthorizeManyInflightRequestsWithChallengeResponseForFewerRoles() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.notifyBarrier("TOKEN_EXPIRATION");
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${streams}/challenge.before.expiration/connect/client",
@@ -304,4 +576,28 @@ public class ProxyConnectIT
         k3po.notifyBarrier("ROUTED_PROXY");
         k3po.finish();
     }
+
+    @Test
+    @Specification({
+        "${streams}/challenge.before.expiration.for.many.streams/connect/client",
+        "${streams}/challenge.before.expiration.for.many.streams/connect/server"
+        })
+    public void shouldChallengeManyStreamsBeforeExpiration() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${streams}/challenge.before.expiration.for.many.streams.with.coinciding.deadlines/connect/client",
+        "${streams}/challenge.before.expiration.for.many.streams.with.coinciding.deadlines/connect/server"
+        })
+    public void shouldChallengeManyStreamsWithCoincidingDeadlines() throws Exception
+    {
+        k3po.start();
+        k3po.notifyBarrier("ROUTED_PROXY");
+        k3po.finish();
+    }
 }